@@ -0,0 +1,65 @@
+package me.optimusprimerdc.primeAssistant.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal timing harness: runs a round a few times to warm up, then keeps the fastest of the
+ * measured rounds and the bytes the thread allocated across them. Rounds return a checksum that is
+ * folded into a volatile sink so the JIT cannot drop the work.
+ */
+final class Bench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static volatile long sink;
+
+    private Bench() {
+    }
+
+    @FunctionalInterface
+    interface Round {
+        long run();
+    }
+
+    static Result measure(int warmupRounds, int rounds, Round round) {
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += round.run();
+        }
+        long best = Long.MAX_VALUE;
+        long allocated = 0L;
+        for (int i = 0; i < rounds; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            sink += round.run();
+            long elapsed = System.nanoTime() - start;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            best = Math.min(best, elapsed);
+        }
+        return new Result(best, allocated / (double) rounds);
+    }
+
+    static final class Result {
+        /** Fastest measured round. */
+        final long bestNanos;
+        /** Mean bytes allocated by the measuring thread per round. */
+        final double bytesPerRound;
+
+        private Result(long bestNanos, double bytesPerRound) {
+            this.bestNanos = bestNanos;
+            this.bytesPerRound = bytesPerRound;
+        }
+
+        double opsPerSecond(long opsPerRound) {
+            return opsPerRound * 1_000_000_000.0 / bestNanos;
+        }
+
+        double nanosPerOp(long opsPerRound) {
+            return bestNanos / (double) opsPerRound;
+        }
+
+        double bytesPerOp(long opsPerRound) {
+            return bytesPerRound / opsPerRound;
+        }
+    }
+}
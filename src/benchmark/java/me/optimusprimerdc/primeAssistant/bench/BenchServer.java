@@ -0,0 +1,100 @@
+package me.optimusprimerdc.primeAssistant.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a server for plugin code that reads Tag.LOGS and BlockData outside a running game:
+ * a proxy Server that answers tag lookups by material name, and proxy BlockData. Every other server
+ * method returns null or zero, so only code that sticks to tags and block data can run against it.
+ */
+final class BenchServer {
+
+    private static boolean installed;
+
+    private BenchServer() {
+    }
+
+    static synchronized void install() {
+        if (installed) return;
+        Logger logger = Logger.getLogger("benchmark");
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLogger":
+                    return logger;
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "benchmark";
+                case "getTag":
+                    return tag(((NamespacedKey) args[1]).getKey());
+                default:
+                    return fallback(proxy, method.getName(), method.getReturnType(), args);
+            }
+        };
+        Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class}, handler));
+        installed = true;
+    }
+
+    static BlockData block(Material material) {
+        return (BlockData) Proxy.newProxyInstance(BlockData.class.getClassLoader(), new Class<?>[]{BlockData.class},
+                (proxy, method, args) -> "getMaterial".equals(method.getName())
+                        ? material : fallback(proxy, method.getName(), method.getReturnType(), args));
+    }
+
+    static Leaves leaves(Material material, int distance, boolean persistent) {
+        return (Leaves) Proxy.newProxyInstance(Leaves.class.getClassLoader(), new Class<?>[]{Leaves.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMaterial":
+                            return material;
+                        case "getDistance":
+                            return distance;
+                        case "isPersistent":
+                            return persistent;
+                        default:
+                            return fallback(proxy, method.getName(), method.getReturnType(), args);
+                    }
+                });
+    }
+
+    private static Tag<?> tag(String key) {
+        String suffix = "logs".equals(key) ? "_LOG" : null;
+        return (Tag<?>) Proxy.newProxyInstance(Tag.class.getClassLoader(), new Class<?>[]{Tag.class},
+                (proxy, method, args) -> "isTagged".equals(method.getName())
+                        ? suffix != null && ((Material) args[0]).name().endsWith(suffix)
+                        : fallback(proxy, method.getName(), method.getReturnType(), args));
+    }
+
+    private static Object fallback(Object proxy, String name, Class<?> type, Object[] args) {
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "bench:" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                break;
+        }
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == void.class) return null;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+}
@@ -0,0 +1,30 @@
+package me.optimusprimerdc.primeAssistant.bench;
+
+import java.util.Locale;
+
+/**
+ * Entry point for ./gradlew benchmark. With no argument every benchmark runs; otherwise only the
+ * named one.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) {
+        String only = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : null;
+        boolean ran = false;
+        if (only == null || only.equals("redstone")) {
+            RedstoneCounterBenchmark.run();
+            ran = true;
+        }
+        if (only == null || only.equals("canopy")) {
+            CanopyDecayBenchmark.run();
+            ran = true;
+        }
+        if (!ran) {
+            System.err.println("Unknown benchmark: " + args[0] + " (available: redstone, canopy)");
+            System.exit(1);
+        }
+    }
+}
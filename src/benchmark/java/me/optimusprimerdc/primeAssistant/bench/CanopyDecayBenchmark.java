@@ -0,0 +1,254 @@
+package me.optimusprimerdc.primeAssistant.bench;
+
+import me.optimusprimerdc.primeAssistant.leafdecay.BlockView;
+import me.optimusprimerdc.primeAssistant.leafdecay.LeafSupport;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Cost of deciding whether each leaf of a synthetic canopy may decay.
+ *
+ * "cube scan" is the original FastLeafDecay.hasLogNearby: up to 7x7x7 block lookups per leaf.
+ * "leaf data" is LeafSupport.isDecayable, which reads the distance vanilla keeps in the leaf's block
+ * data and only walks its neighbourhood when that value may be stale. Each tree is measured standing,
+ * right after its logs are cut (distances still stale) and once vanilla has propagated distance 7.
+ *
+ * Block lookups per leaf are exact and machine independent; times include the proxy BlockData this
+ * harness uses in place of the server's own, so they overstate both sides.
+ */
+final class CanopyDecayBenchmark {
+
+    private static final int SIZE = 48;
+    private static final int DECAY = LeafSupport.DECAY_DISTANCE;
+    private static final int[][] FACES = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    private CanopyDecayBenchmark() {
+    }
+
+    static void run() {
+        BenchServer.install();
+        System.out.println("Leaf decay eligibility, per leaf of the canopy");
+        measure("large oak", Canopy.largeOak());
+        measure("jungle", Canopy.jungle());
+    }
+
+    private static void measure(String name, Canopy canopy) {
+        int[] leaves = canopy.leafPositions();
+        System.out.println("  " + name + ": " + leaves.length / 3 + " leaves");
+        scenario("standing", canopy, leaves);
+        canopy.cutLogs();
+        scenario("just cut", canopy, leaves);
+        canopy.propagate();
+        scenario("settled", canopy, leaves);
+    }
+
+    private static void scenario(String label, Canopy canopy, int[] leaves) {
+        int n = leaves.length / 3;
+        Check cube = (view, x, y, z) -> !hasLogNearby(view, x, y, z);
+        Check data = LeafSupport::isDecayable;
+        print(label, "cube scan", canopy, leaves, n, cube);
+        print(label, "leaf data", canopy, leaves, n, data);
+    }
+
+    private static void print(String label, String algorithm, Canopy canopy, int[] leaves, int n, Check check) {
+        canopy.lookups = 0L;
+        int decayable = pass(canopy, leaves, check);
+        double lookupsPerLeaf = canopy.lookups / (double) n;
+        Bench.Result r = Bench.measure(20, 30, () -> pass(canopy, leaves, check));
+        System.out.printf(Locale.ROOT, "    %-9s %-10s %7.1f lookups/leaf  %9.1f ns/leaf  %5d decayable%n",
+                label, algorithm, lookupsPerLeaf, r.nanosPerOp(n), decayable);
+    }
+
+    private static int pass(BlockView view, int[] leaves, Check check) {
+        int decayable = 0;
+        for (int i = 0; i < leaves.length; i += 3) {
+            if (check.isDecayable(view, leaves[i], leaves[i + 1], leaves[i + 2])) decayable++;
+        }
+        return decayable;
+    }
+
+    /**
+     * The scan FastLeafDecay used before, over a BlockView instead of Block#getRelative.
+     */
+    private static boolean hasLogNearby(BlockView view, int x, int y, int z) {
+        for (int dx = -3; dx <= 3; dx++) {
+            for (int dy = -3; dy <= 3; dy++) {
+                for (int dz = -3; dz <= 3; dz++) {
+                    BlockData b = view.get(x + dx, y + dy, z + dz);
+                    if (b != null && Tag.LOGS.isTagged(b.getMaterial())) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean isDecayable(BlockView view, int x, int y, int z);
+    }
+
+    /**
+     * A SIZE^3 box holding one tree, with leaf distances computed the way vanilla spreads them.
+     */
+    private static final class Canopy implements BlockView {
+        private static final byte AIR = 0;
+        private static final byte LOG = 1;
+        private static final byte LEAF = 2;
+
+        private final byte[] kind = new byte[SIZE * SIZE * SIZE];
+        private final byte[] distance = new byte[SIZE * SIZE * SIZE];
+        private final BlockData air = BenchServer.block(Material.AIR);
+        private final BlockData log;
+        private final Leaves[] leafData = new Leaves[DECAY + 1];
+        private long lookups;
+
+        private Canopy(Material logType, Material leafType) {
+            this.log = BenchServer.block(logType);
+            for (int d = 1; d <= DECAY; d++) {
+                leafData[d] = BenchServer.leaves(leafType, d, false);
+            }
+        }
+
+        /** 1x1 trunk with a few branches and a round crown of radius 5. */
+        static Canopy largeOak() {
+            Canopy c = new Canopy(Material.OAK_LOG, Material.OAK_LEAVES);
+            int m = SIZE / 2;
+            c.column(m, m, 1, 14);
+            for (int i = 1; i <= 3; i++) {
+                c.set(m + i, 10 + i, m, LOG);
+                c.set(m - i, 11 + i, m, LOG);
+                c.set(m, 9 + i, m + i, LOG);
+            }
+            c.blob(m, 14, m, 5, 4);
+            c.propagate();
+            return c;
+        }
+
+        /** 2x2 trunk 28 high with a wide flat crown and side branches carrying their own leaves. */
+        static Canopy jungle() {
+            Canopy c = new Canopy(Material.JUNGLE_LOG, Material.JUNGLE_LEAVES);
+            int m = SIZE / 2;
+            for (int dx = 0; dx <= 1; dx++) {
+                for (int dz = 0; dz <= 1; dz++) {
+                    c.column(m + dx, m + dz, 1, 28);
+                }
+            }
+            for (int i = 1; i <= 4; i++) {
+                c.set(m + 1 + i, 16, m, LOG);
+                c.set(m - i, 20, m + 1, LOG);
+            }
+            c.blob(m + 6, 17, m, 3, 2);
+            c.blob(m - 5, 21, m + 1, 3, 2);
+            c.blob(m, 28, m, 9, 4);
+            c.propagate();
+            return c;
+        }
+
+        @Override
+        public BlockData get(int x, int y, int z) {
+            lookups++;
+            if (x < 0 || y < 0 || z < 0 || x >= SIZE || y >= SIZE || z >= SIZE) return null;
+            int i = index(x, y, z);
+            switch (kind[i]) {
+                case LOG:
+                    return log;
+                case LEAF:
+                    return leafData[distance[i]];
+                default:
+                    return air;
+            }
+        }
+
+        int[] leafPositions() {
+            int n = 0;
+            for (byte k : kind) {
+                if (k == LEAF) n++;
+            }
+            int[] out = new int[n * 3];
+            int o = 0;
+            for (int y = 0; y < SIZE; y++) {
+                for (int z = 0; z < SIZE; z++) {
+                    for (int x = 0; x < SIZE; x++) {
+                        if (kind[index(x, y, z)] != LEAF) continue;
+                        out[o++] = x;
+                        out[o++] = y;
+                        out[o++] = z;
+                    }
+                }
+            }
+            return out;
+        }
+
+        /** Remove every log; leaf distances keep their old values until propagate(). */
+        void cutLogs() {
+            for (int i = 0; i < kind.length; i++) {
+                if (kind[i] == LOG) kind[i] = AIR;
+            }
+        }
+
+        /** Recompute leaf distances: breadth first from the logs through leaves, capped at 7. */
+        void propagate() {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int i = 0; i < kind.length; i++) {
+                distance[i] = DECAY;
+                if (kind[i] == LOG) {
+                    distance[i] = 0;
+                    queue.add(i);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int i = queue.poll();
+                int x = i % SIZE;
+                int z = (i / SIZE) % SIZE;
+                int y = i / (SIZE * SIZE);
+                int next = distance[i] + 1;
+                if (next >= DECAY) continue;
+                for (int[] f : FACES) {
+                    int nx = x + f[0];
+                    int ny = y + f[1];
+                    int nz = z + f[2];
+                    if (nx < 0 || ny < 0 || nz < 0 || nx >= SIZE || ny >= SIZE || nz >= SIZE) continue;
+                    int j = index(nx, ny, nz);
+                    if (kind[j] == LEAF && distance[j] > next) {
+                        distance[j] = (byte) next;
+                        queue.add(j);
+                    }
+                }
+            }
+        }
+
+        private void column(int x, int z, int fromY, int toY) {
+            for (int y = fromY; y <= toY; y++) {
+                set(x, y, z, LOG);
+            }
+        }
+
+        /** Leaves in an ellipsoid with the given horizontal and vertical radius, around existing logs. */
+        private void blob(int cx, int cy, int cz, int r, int ry) {
+            for (int y = cy - ry; y <= cy + ry; y++) {
+                for (int z = cz - r; z <= cz + r; z++) {
+                    for (int x = cx - r; x <= cx + r; x++) {
+                        double dx = (x - cx) / (double) r;
+                        double dy = (y - cy) / (double) ry;
+                        double dz = (z - cz) / (double) r;
+                        if (dx * dx + dy * dy + dz * dz > 1.0) continue;
+                        if (kind[index(x, y, z)] == AIR) set(x, y, z, LEAF);
+                    }
+                }
+            }
+        }
+
+        private void set(int x, int y, int z, byte k) {
+            kind[index(x, y, z)] = k;
+        }
+
+        private static int index(int x, int y, int z) {
+            return (y * SIZE + z) * SIZE + x;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package me.optimusprimerdc.primeAssistant.bench;
+
+import me.optimusprimerdc.primeAssistant.redstone.ActivityScores;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Per-event cost of counting a BlockRedstoneEvent against its chunk.
+ *
+ * "string map" is the original tracking: a "world:x:z" key and a boxed HashMap.merge per event.
+ * "packed key" is what Redstone.onRedstone does now: a packed chunk key and two ActivityScores
+ * updates (the event count and the weighted cost). The events are a fixed pseudo-random mix of
+ * busy clock chunks and background chunks, replayed identically for both.
+ */
+final class RedstoneCounterBenchmark {
+
+    private static final int EVENTS = 1 << 18;
+    private static final int HOT_CHUNKS = 16;
+    private static final int ALL_CHUNKS = 1024;
+    private static final int EVENTS_PER_TICK = 1000;
+
+    private RedstoneCounterBenchmark() {
+    }
+
+    static void run() {
+        int[] xs = new int[EVENTS];
+        int[] zs = new int[EVENTS];
+        Random random = new Random(42L);
+        for (int i = 0; i < EVENTS; i++) {
+            // most events come from a few clock chunks, the rest is spread over the loaded area
+            int chunk = random.nextInt(10) < 8 ? random.nextInt(HOT_CHUNKS) : random.nextInt(ALL_CHUNKS);
+            xs[i] = ((chunk % 32) - 16) * 16 + random.nextInt(16);
+            zs[i] = ((chunk / 32) - 16) * 16 + random.nextInt(16);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        Bench.Result before = Bench.measure(10, 20, () -> {
+            counts.clear();
+            String world = "world";
+            for (int i = 0; i < EVENTS; i++) {
+                String key = world + ":" + (xs[i] >> 4) + ":" + (zs[i] >> 4);
+                counts.merge(key, 1, Integer::sum);
+            }
+            return counts.size();
+        });
+
+        ActivityScores events = new ActivityScores(32, 10.0);
+        ActivityScores cost = new ActivityScores(32, 10.0);
+        long[] tick = {0L};
+        Bench.Result after = Bench.measure(10, 20, () -> {
+            for (int i = 0; i < EVENTS; i++) {
+                if (i % EVENTS_PER_TICK == 0) tick[0]++;
+                long key = ChunkKeys.pack(0, xs[i] >> 4, zs[i] >> 4);
+                events.add(key, 1.0, tick[0]);
+                cost.add(key, 1.0, tick[0]);
+            }
+            return events.size();
+        });
+
+        System.out.println("Redstone chunk counter, " + EVENTS + " events per round");
+        print("string map", before);
+        print("packed key", after);
+    }
+
+    private static void print(String name, Bench.Result r) {
+        System.out.printf(Locale.ROOT, "  %-12s %,14.0f events/s  %8.1f ns/event  %8.2f bytes/event%n",
+                name, r.opsPerSecond(EVENTS), r.nanosPerOp(EVENTS), r.bytesPerOp(EVENTS));
+    }
+}
@@ -8,6 +8,8 @@ import me.optimusprimerdc.primeAssistant.clearlag.ClearLag;
 import me.optimusprimerdc.primeAssistant.CoinFlip.CoinFlip;
 import me.optimusprimerdc.primeAssistant.config.ConfigManager;
 import me.optimusprimerdc.primeAssistant.config.ConfigUpdater;
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.monitor.TickSampler;
 
 import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.economy.EconomyResponse;
@@ -23,7 +25,10 @@ public final class PrimeAssistant extends JavaPlugin {
     private ChatFiltering chatFiltering;
     private ClearLag clearLag;
     private Gunpowder gunpowder;
+    private Redstone redstone;
+    private FastLeafDecay fastLeafDecay;
     private ConfigManager configManager;
+    private TickSampler tickSampler;
 
     private static Economy econ = null;
 
@@ -57,10 +62,15 @@ public final class PrimeAssistant extends JavaPlugin {
         }
         getLogger().info("Economy provider hooked: " + econ.getName());
 
+        // shared tick-time sampler; subsystems read TPS and tick intervals from it instead of reflecting into the server
+        tickSampler = new TickSampler(this);
+        tickSampler.start();
+
         clearLag = new ClearLag(this);
 
         getServer().getPluginManager().registerEvents(new snowball(), this);
-        getServer().getPluginManager().registerEvents(new FastLeafDecay(this), this);
+        fastLeafDecay = new FastLeafDecay(this);
+        getServer().getPluginManager().registerEvents(fastLeafDecay, this);
 
         // keep a reference to Gunpowder so reload can update it
         gunpowder = new Gunpowder(this);
@@ -81,8 +91,8 @@ public final class PrimeAssistant extends JavaPlugin {
         }
 
         // Use Redstone's single-arg constructor that reads its settings from ConfigManager
-        Redstone redstoneProtector = new Redstone(this);
-        getServer().getPluginManager().registerEvents(redstoneProtector, this);
+        redstone = new Redstone(this);
+        getServer().getPluginManager().registerEvents(redstone, this);
 
         PrimeAssistantCommand mainCommand = new PrimeAssistantCommand(this);
         if (getCommand("primeassistant") != null) {
@@ -112,7 +122,16 @@ public final class PrimeAssistant extends JavaPlugin {
     @Override
     public void onDisable() {
         if (clearLag != null) {
-            clearLag.stop();
+            clearLag.shutdown();
+        }
+        if (redstone != null) {
+            redstone.shutdown();
+        }
+        if (fastLeafDecay != null) {
+            fastLeafDecay.shutdown();
+        }
+        if (tickSampler != null) {
+            tickSampler.stop();
         }
         if (gunpowder != null) {
             // disable to cancel tasks and clear tracking
@@ -135,13 +154,25 @@ public final class PrimeAssistant extends JavaPlugin {
             gunpowder.setEnabled(enabled);
         }
 
-        // other subsystems can be updated here if they expose reload/load methods
+        if (redstone != null) {
+            redstone.reload();
+        }
+        if (fastLeafDecay != null) {
+            fastLeafDecay.reload();
+        }
+        if (clearLag != null) {
+            clearLag.reload();
+        }
     }
 
     public ConfigManager getConfigManager() {
         return configManager;
     }
 
+    public TickMonitor getTickMonitor() {
+        return tickSampler;
+    }
+
     public ChatFiltering getChatFiltering() {
         return this.chatFiltering;
     }
@@ -150,6 +181,14 @@ public final class PrimeAssistant extends JavaPlugin {
         return this.clearLag;
     }
 
+    public Redstone getRedstone() {
+        return this.redstone;
+    }
+
+    public FastLeafDecay getFastLeafDecay() {
+        return this.fastLeafDecay;
+    }
+
     private boolean setupEconomy() {
         if (getServer().getPluginManager().getPlugin("Vault") == null) {
             return false;
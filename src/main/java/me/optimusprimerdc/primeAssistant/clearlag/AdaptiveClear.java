@@ -0,0 +1,240 @@
+package me.optimusprimerdc.primeAssistant.clearlag;
+
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Clears single chunks as soon as they fill up with dropped items, instead of waiting for the timer.
+ *
+ * Item entities are counted per chunk from spawn and remove events, and seeded from the entity list
+ * when a chunk's entities load. Items that drift across a chunk border leave the counts slightly off,
+ * so a chunk that looks over its limit is recounted from its entities before anything is removed. A
+ * chunk is cleared when it reaches chunk-item-limit, or the lower pressure limit while the 5 second
+ * tick interval is at or above tick-ms-limit (a healthy server sits at 50 ms). With a consolidator
+ * its items are merged into full stacks first, and the chunk is only cleared if that still leaves it
+ * at the limit. There is no countdown; staff with primeassistant.notify are told which chunk was
+ * cleared. Nothing is counted while adaptive clearing is stopped. Main thread only.
+ */
+public class AdaptiveClear implements Listener {
+
+    private final Plugin plugin;
+    private final TickMonitor tickMonitor;
+    private final Consumer<String> log;
+    private final LongObjectMap<int[]> counts = new LongObjectMap<>(256);
+    private final Set<Long> hot = new HashSet<>();
+
+    private Set<Material> blocklist = Set.of();
+    private ItemConsolidator consolidator;
+    private boolean remove = true;
+    private int chunkLimit = 400;
+    private int pressureLimit = 150;
+    private double tickMillisLimit = 55.0;
+    private int maxChunksPerCheck = 8;
+    private BukkitTask task;
+    private boolean registered = false;
+
+    public AdaptiveClear(Plugin plugin, TickMonitor tickMonitor, Consumer<String> log) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        this.log = log;
+    }
+
+
+    /**
+     * @param consolidator merges items before removal, or null to skip merging
+     * @param remove whether items left after merging are removed
+     */
+    public void configure(Set<Material> blocklist, ItemConsolidator consolidator, boolean remove,
+                          int chunkLimit, int pressureLimit, double tickMillisLimit, int maxChunksPerCheck) {
+        this.blocklist = blocklist;
+        this.consolidator = consolidator;
+        this.remove = remove;
+        this.chunkLimit = Math.max(1, chunkLimit);
+        this.pressureLimit = Math.max(1, Math.min(this.chunkLimit, pressureLimit));
+        this.tickMillisLimit = tickMillisLimit;
+        this.maxChunksPerCheck = Math.max(1, maxChunksPerCheck);
+        hot.clear();
+        counts.forEach((key, count) -> {
+            if (count[0] >= this.pressureLimit) hot.add(key);
+        });
+    }
+
+    /**
+     * Start counting and checking. The listeners are registered on the first start, and items in
+     * chunks that are already loaded are counted from scratch.
+     */
+    public void start(long checkIntervalTicks) {
+        stop();
+        if (!registered) {
+            plugin.getServer().getPluginManager().registerEvents(this, plugin);
+            registered = true;
+        }
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                seed(chunk, chunk.getEntities());
+            }
+        }
+        long period = Math.max(1L, checkIntervalTicks);
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::check, period, period);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        counts.clear();
+        hot.clear();
+    }
+
+    /**
+     * Counted item entities in the chunk, which may be slightly off until the chunk is checked.
+     */
+    public int getCount(long chunkKey) {
+        int[] count = counts.get(chunkKey);
+        return count == null ? 0 : count[0];
+    }
+
+    private void check() {
+        if (hot.isEmpty()) return;
+        int limit = tickMonitor.getTickInterval5s() >= tickMillisLimit ? pressureLimit : chunkLimit;
+
+        List<Long> due = new ArrayList<>();
+        for (Iterator<Long> it = hot.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            int count = getCount(key);
+            if (count < pressureLimit) {
+                it.remove();
+            } else if (count >= limit) {
+                due.add(key);
+            }
+        }
+        due.sort((a, b) -> Integer.compare(getCount(b), getCount(a)));
+
+        for (int i = 0; i < due.size() && i < maxChunksPerCheck; i++) {
+            clear(due.get(i), limit);
+        }
+    }
+
+    private void clear(long chunkKey, int limit) {
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        if (world == null || !world.isChunkLoaded(cx, cz)) {
+            counts.remove(chunkKey);
+            hot.remove(chunkKey);
+            return;
+        }
+        Chunk chunk = world.getChunkAt(cx, cz);
+        int actual = seed(chunk, chunk.getEntities());
+        if (actual < limit) return;
+
+        // the count follows merges and removals through EntityRemoveEvent
+        int merged = consolidator == null ? 0 : consolidator.consolidate(chunk);
+        int removed = 0;
+        if (remove && actual - merged >= limit) {
+            removed = ClearSweep.clearChunk(chunk, blocklist, new ArrayList<>(), plugin.getLogger());
+        }
+        if (merged <= 0 && removed <= 0) return;
+
+        String where = world.getName() + " " + (cx << 4) + ", " + (cz << 4);
+        String summary = "ClearLag: merged " + merged + " and removed " + removed + " dropped items in a crowded chunk at " + where
+                + " (" + actual + " items, limit " + limit + ", tick " + String.format(Locale.ROOT, "%.1f", tickMonitor.getTickInterval5s()) + "ms).";
+        plugin.getLogger().info(summary);
+        log.accept(summary);
+        Bukkit.broadcast(ChatColor.GOLD + "[ClearLag] " + ChatColor.GREEN + "Merged " + ChatColor.WHITE + merged
+                + ChatColor.GREEN + " and removed " + ChatColor.WHITE + removed
+                + ChatColor.GREEN + " dropped items in a crowded chunk at " + ChatColor.WHITE + where, "primeassistant.notify");
+    }
+
+    /**
+     * Set the chunk's count from its entity list. Returns the count.
+     */
+    private int seed(Chunk chunk, Iterable<Entity> entities) {
+        int n = 0;
+        for (Entity entity : entities) {
+            if (entity instanceof Item) n++;
+        }
+        set(ChunkKeys.of(chunk), n);
+        return n;
+    }
+
+    private int seed(Chunk chunk, Entity[] entities) {
+        return seed(chunk, Arrays.asList(entities));
+    }
+
+    private void set(long chunkKey, int n) {
+        if (n <= 0) {
+            counts.remove(chunkKey);
+            hot.remove(chunkKey);
+            return;
+        }
+        int[] count = counts.get(chunkKey);
+        if (count == null) {
+            count = new int[1];
+            counts.put(chunkKey, count);
+        }
+        count[0] = n;
+        if (n >= pressureLimit) hot.add(chunkKey);
+    }
+
+    private void add(Location location, int delta) {
+        if (location.getWorld() == null) return;
+        long key = ChunkKeys.of(location);
+        int[] count = counts.get(key);
+        set(key, (count == null ? 0 : count[0]) + delta);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        if (task == null) return;
+        add(event.getLocation(), 1);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        if (task == null) return;
+        if (event.getEntity() instanceof Item) add(event.getEntity().getLocation(), -1);
+    }
+
+    @EventHandler
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        if (task == null) return;
+        seed(event.getChunk(), event.getEntities());
+    }
+
+    @EventHandler
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        if (task == null) return;
+        long key = ChunkKeys.of(event.getChunk());
+        counts.remove(key);
+        hot.remove(key);
+    }
+}
@@ -2,12 +2,10 @@ package me.optimusprimerdc.primeAssistant.clearlag;
 
 import me.optimusprimerdc.primeAssistant.PrimeAssistant;
 import me.optimusprimerdc.primeAssistant.config.ConfigManager;
+import me.optimusprimerdc.primeAssistant.util.LogAppender;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
-import org.bukkit.World;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.Item;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.enchantments.Enchantment;
@@ -15,12 +13,6 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -30,23 +22,32 @@ import java.util.logging.Logger;
 
 @SuppressWarnings("deprecation")
 public class ClearLag {
+    private static final int LOG_QUEUE_CAPACITY = 4096;
+    private static final long LOG_CLOSE_TIMEOUT_MILLIS = 5000L;
+
     private final PrimeAssistant plugin;
     private final ConfigManager cfg;
     private final Logger logger;
     private BukkitTask clearTask;
     private BukkitTask countdownTask;
+    private ClearSweep sweep;
+    private final AdaptiveClear adaptive;
 
     private Set<Material> blocklistMaterials = Collections.emptySet();
     private int intervalSeconds = 600;
     private int warningSeconds = 30;
+    private double tickBudgetMillis = 2.0;
+    private boolean adaptiveEnabled = false;
+    private int adaptiveCheckTicks = 20;
+    private ItemConsolidator consolidator;
+    private boolean removeAfterMerge = true;
+    private int mergeRemoveMinItems = 32;
     private boolean enabled = true;
 
     private volatile boolean sequenceRunning = false;
 
     // logging
-    private final Path logFile;
-    private final Object writeLock = new Object();
-    private final long maxLogSize = 5 * 1024 * 1024L;
+    private final LogAppender log;
     private final DateTimeFormatter tsFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
     public ClearLag(PrimeAssistant plugin) {
@@ -54,16 +55,11 @@ public class ClearLag {
         this.cfg = plugin.getConfigManager();
         this.logger = plugin.getLogger();
 
-        try {
-            Path dir = plugin.getDataFolder().toPath();
-            Files.createDirectories(dir);
-            this.logFile = dir.resolve("clearlag.log");
-            if (!Files.exists(logFile)) Files.createFile(logFile);
-        } catch (IOException e) {
-            throw new RuntimeException("ClearLag log init failed", e);
-        }
+        this.log = new LogAppender(plugin.getDataFolder().toPath().resolve("clearlag.log"), null, logger, LOG_QUEUE_CAPACITY);
+        this.adaptive = new AdaptiveClear(plugin, plugin.getTickMonitor(), this::writeLog);
 
         loadConfig();
+        log.start();
         if (enabled) start();
     }
 
@@ -71,6 +67,8 @@ public class ClearLag {
         this.enabled = cfg.isClearlagEnabled();
         this.intervalSeconds = cfg.getClearlagIntervalSeconds();
         this.warningSeconds = cfg.getClearlagWarningSeconds();
+        this.tickBudgetMillis = cfg.getClearlagTickBudgetMillis();
+        log.configure(cfg.getClearlagLogMaxSizeKb() * 1024L, cfg.isClearlagLogCompressRotated(), cfg.getClearlagLogFsyncIntervalMillis());
 
         List<String> raw = cfg.getClearlagBlocklist();
         Set<Material> parsed = new HashSet<>();
@@ -83,6 +81,15 @@ public class ClearLag {
             }
         }
         this.blocklistMaterials = Collections.unmodifiableSet(parsed);
+
+        this.consolidator = cfg.isClearlagMergeEnabled() ? new ItemConsolidator(cfg.getClearlagMergeRadius()) : null;
+        this.removeAfterMerge = consolidator == null || cfg.isClearlagMergeRemoveAfter();
+        this.mergeRemoveMinItems = cfg.getClearlagMergeRemoveMinItems();
+
+        this.adaptiveEnabled = cfg.isClearlagAdaptiveEnabled();
+        this.adaptiveCheckTicks = cfg.getClearlagAdaptiveCheckIntervalTicks();
+        adaptive.configure(blocklistMaterials, consolidator, removeAfterMerge, cfg.getClearlagAdaptiveChunkItemLimit(), cfg.getClearlagAdaptivePressureChunkItemLimit(),
+                cfg.getClearlagAdaptiveTickMillisLimit(), cfg.getClearlagAdaptiveMaxChunksPerCheck());
     }
 
     public synchronized void start() {
@@ -91,9 +98,16 @@ public class ClearLag {
             logger.info("ClearLag is disabled in config.");
             return;
         }
+        if (adaptiveEnabled) {
+            adaptive.start(adaptiveCheckTicks);
+        }
+        if (intervalSeconds <= 0 && adaptiveEnabled) {
+            logger.info("ClearLag started (adaptive only).");
+            return;
+        }
         long ticks = Math.max(1, intervalSeconds) * 20L;
         clearTask = Bukkit.getScheduler().runTaskTimer(plugin, this::beginSequence, ticks, ticks);
-        logger.info("ClearLag started (interval: " + intervalSeconds + "s).");
+        logger.info("ClearLag started (interval: " + intervalSeconds + "s" + (adaptiveEnabled ? ", adaptive" : "") + ").");
     }
 
     private void beginSequence() {
@@ -108,7 +122,7 @@ public class ClearLag {
             countdownTask = null;
         }
 
-        new BukkitRunnable() {
+        countdownTask = new BukkitRunnable() {
             int secondsLeft = warningSeconds;
 
             @Override
@@ -121,62 +135,63 @@ public class ClearLag {
                 }
 
                 if (secondsLeft <= 0) {
-                    int removed = performClearAndLog();
-                    Bukkit.broadcastMessage(ChatColor.GOLD + "[ClearLag] " + ChatColor.GREEN + "Removed " + ChatColor.WHITE + removed + ChatColor.GREEN + " dropped items.");
-                    sequenceRunning = false;
                     this.cancel();
+                    countdownTask = null;
+                    startSweep();
+                    return;
                 }
                 secondsLeft--;
             }
         }.runTaskTimer(plugin, 0L, 20L);
     }
 
-    private int performClearAndLog() {
-        List<ItemStack> removedItems = new ArrayList<>();
-        int removed = 0;
-        try {
-            for (World world : Bukkit.getWorlds()) {
-                for (Entity ent : new ArrayList<>(world.getEntities())) {
-                    try {
-                        if (!(ent instanceof Item)) continue;
-                        Item itemEntity = (Item) ent;
-                        ItemStack stack = itemEntity.getItemStack();
-                        if (stack == null) continue;
-                        Material type = stack.getType();
-                        if (blocklistMaterials.contains(type)) continue;
-                        removedItems.add(stack.clone());
-                        itemEntity.remove();
-                        removed++;
-                    } catch (Throwable inner) {
-                        logger.warning("ClearLag: failed handling an item entity: " + inner.getMessage());
-                    }
-                }
-            }
-        } catch (Throwable t) {
-            logger.warning("ClearLag: performClear failed: " + t.getMessage());
+    /**
+     * Clear items chunk by chunk under the tick budget; the broadcast and log follow once every
+     * loaded chunk has been visited.
+     */
+    private void startSweep() {
+        sweep = new ClearSweep(plugin, blocklistMaterials, consolidator, removeAfterMerge, mergeRemoveMinItems,
+                tickBudgetMillis, this::finishSweep);
+        sweep.start();
+    }
+
+    private void finishSweep(ClearSweep done) {
+        sweep = null;
+        sequenceRunning = false;
+        int removed = done.getRemoved();
+        int merged = done.getMerged();
+        if (consolidator != null) {
+            Bukkit.broadcastMessage(ChatColor.GOLD + "[ClearLag] " + ChatColor.GREEN + "Merged " + ChatColor.WHITE + merged
+                    + ChatColor.GREEN + " and removed " + ChatColor.WHITE + removed + ChatColor.GREEN + " dropped items.");
+        } else {
+            Bukkit.broadcastMessage(ChatColor.GOLD + "[ClearLag] " + ChatColor.GREEN + "Removed " + ChatColor.WHITE + removed + ChatColor.GREEN + " dropped items.");
         }
+        logger.fine("ClearLag: swept " + done.getChunksVisited() + " chunks in " + done.getTicks() + " ticks.");
 
+        if (merged > 0 && removed <= 0) {
+            String summary = "ClearLag: merged " + merged + " dropped items into nearby stacks.";
+            logger.info(summary);
+            writeLog(summary);
+        }
         if (removed > 0) {
-            String summary = "ClearLag: removed " + removed + " dropped items.";
+            String summary = "ClearLag: " + (consolidator != null ? "merged " + merged + " and " : "") + "removed " + removed + " dropped items.";
             logger.info(summary);
             writeLog(summary);
 
+            List<ItemStack> removedItems = done.getSample();
             if (!removedItems.isEmpty()) {
-                int limit = 100;
                 List<String> formatted = removedItems.stream()
-                        .limit(limit)
                         .map(this::formatItem)
                         .collect(Collectors.toList());
                 String joined = String.join(" ; ", formatted);
-                if (removedItems.size() > limit) {
-                    joined += " ; (and " + (removedItems.size() - limit) + " more)";
+                if (removed > removedItems.size()) {
+                    joined += " ; (and " + (removed - removedItems.size()) + " more)";
                 }
                 String detail = "Removed items: " + joined;
                 logger.info(detail);
                 writeLog(detail);
             }
         }
-        return removed;
     }
 
     public synchronized void stop() {
@@ -188,9 +203,23 @@ public class ClearLag {
             countdownTask.cancel();
             countdownTask = null;
         }
+        if (sweep != null) {
+            sweep.cancel();
+            sweep = null;
+        }
+        adaptive.stop();
+        sequenceRunning = false;
         logger.info("ClearLag stopped.");
     }
 
+    /**
+     * Stop and flush the log; used when the plugin is disabled.
+     */
+    public synchronized void shutdown() {
+        stop();
+        log.close(LOG_CLOSE_TIMEOUT_MILLIS);
+    }
+
     public synchronized void reload() {
         stop();
         loadConfig();
@@ -239,40 +268,7 @@ public class ClearLag {
     }
 
     private void writeLog(String msg) {
-        String line = tsFormat.format(Instant.now()) + " [INFO] " + msg + System.lineSeparator();
-        synchronized (writeLock) {
-            try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-                try (FileLock lock = ch.lock()) {
-                    ByteBuffer buf = StandardCharsets.UTF_8.encode(line);
-                    while (buf.hasRemaining()) ch.write(buf);
-                    ch.force(true);
-                }
-            } catch (IOException e) {
-                logger.warning("ClearLag: log write failed: " + e.getMessage());
-            }
-            tryRotateIfNeeded();
-        }
-    }
-
-    private void tryRotateIfNeeded() {
-        try {
-            long size = Files.size(logFile);
-            if (size <= maxLogSize) return;
-            String rotatedName = "clearlag-" + Instant.now().toString().replace(":", "-") + ".log";
-            Path rotated = logFile.resolveSibling(rotatedName);
-            try {
-                Files.move(logFile, rotated, StandardCopyOption.ATOMIC_MOVE);
-            } catch (AtomicMoveNotSupportedException ex) {
-                Files.move(logFile, rotated);
-            }
-            try {
-                Files.createFile(logFile);
-            } catch (FileAlreadyExistsException ignored) {
-                // fine
-            }
-        } catch (IOException e) {
-            logger.warning("ClearLag: rotate failed: " + e.getMessage());
-        }
+        log.append(tsFormat.format(Instant.now()) + " [INFO] " + msg + System.lineSeparator());
     }
 
     private String stripColor(String colored) {
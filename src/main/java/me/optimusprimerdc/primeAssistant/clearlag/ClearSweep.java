@@ -0,0 +1,186 @@
+package me.optimusprimerdc.primeAssistant.clearlag;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Removes dropped items from every loaded chunk over as many ticks as it takes.
+ *
+ * With a consolidator, each chunk's items are first merged into full stacks, and the chunk is only
+ * cleared if merging still leaves it with at least removeMinItems items; removal can also be turned
+ * off so the sweep only merges. Worlds are visited one after another; each world's loaded chunks are
+ * listed when the sweep reaches it, and chunks are then cleared one at a time until the per-tick
+ * budget is spent. A chunk that
+ * unloaded in the meantime is skipped. When the last chunk is done the callback gets the totals.
+ * Main thread only.
+ */
+public class ClearSweep {
+
+    /** Removed stacks kept for the detail line of the log. */
+    public static final int SAMPLE_LIMIT = 100;
+
+    private final Plugin plugin;
+    private final Logger logger;
+    private final Set<Material> blocklist;
+    private final ItemConsolidator consolidator;
+    private final boolean remove;
+    private final int removeMinItems;
+    private final long tickBudgetNanos;
+    private final Consumer<ClearSweep> onDone;
+    private final List<World> worlds;
+    private final List<ItemStack> sample = new ArrayList<>();
+
+    private int worldCursor = 0;
+    private Chunk[] chunks;
+    private int chunkCursor = 0;
+    private int removed = 0;
+    private int merged = 0;
+    private int chunksVisited = 0;
+    private int ticks = 0;
+    private BukkitTask task;
+
+    /**
+     * @param consolidator merges items before removal, or null to skip merging
+     * @param remove whether items left after merging are removed
+     * @param removeMinItems with a consolidator, the fewest items a chunk must still hold after merging
+     *                       to be cleared
+     */
+    public ClearSweep(Plugin plugin, Set<Material> blocklist, ItemConsolidator consolidator, boolean remove,
+                      int removeMinItems, double tickBudgetMillis, Consumer<ClearSweep> onDone) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.blocklist = blocklist;
+        this.consolidator = consolidator;
+        this.remove = remove;
+        this.removeMinItems = Math.max(0, removeMinItems);
+        this.tickBudgetNanos = (long) (Math.max(0.1, tickBudgetMillis) * 1_000_000L);
+        this.onDone = onDone;
+        this.worlds = new ArrayList<>(Bukkit.getWorlds());
+    }
+
+    public void start() {
+        if (task != null) return;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::step, 0L, 1L);
+    }
+
+    /**
+     * Stop without calling back; items already removed stay removed.
+     */
+    public void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Item entities merged into other stacks (and so gone, but not lost).
+     */
+    public int getMerged() {
+        return merged;
+    }
+
+    public int getChunksVisited() {
+        return chunksVisited;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Copies of up to SAMPLE_LIMIT removed stacks, in removal order.
+     */
+    public List<ItemStack> getSample() {
+        return sample;
+    }
+
+    private void step() {
+        ticks++;
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        while (true) {
+            if (chunks == null || chunkCursor >= chunks.length) {
+                if (worldCursor >= worlds.size()) {
+                    cancel();
+                    onDone.accept(this);
+                    return;
+                }
+                World world = worlds.get(worldCursor++);
+                chunks = Bukkit.getWorld(world.getUID()) == null ? new Chunk[0] : world.getLoadedChunks();
+                chunkCursor = 0;
+                continue;
+            }
+            Chunk chunk = chunks[chunkCursor];
+            chunks[chunkCursor++] = null;
+            if (chunk.isLoaded()) {
+                clear(chunk);
+                chunksVisited++;
+            }
+            if (System.nanoTime() >= deadline) return;
+        }
+    }
+
+    private void clear(Chunk chunk) {
+        if (consolidator == null) {
+            if (remove) removed += clearChunk(chunk, blocklist, sample, logger);
+            return;
+        }
+        merged += consolidator.consolidate(chunk);
+        // a chunk that merging brought down to a few stacks keeps its loot
+        if (remove && countItems(chunk) >= removeMinItems) {
+            removed += clearChunk(chunk, blocklist, sample, logger);
+        }
+    }
+
+    private static int countItems(Chunk chunk) {
+        int n = 0;
+        for (Entity ent : chunk.getEntities()) {
+            if (ent instanceof Item && ent.isValid()) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Remove the chunk's dropped items that are not blocklisted, copying removed stacks into sample
+     * until it holds SAMPLE_LIMIT. Returns the number of item entities removed.
+     */
+    static int clearChunk(Chunk chunk, Set<Material> blocklist, List<ItemStack> sample, Logger logger) {
+        int removed = 0;
+        for (Entity ent : chunk.getEntities()) {
+            try {
+                if (!(ent instanceof Item) || !ent.isValid()) continue;
+                Item itemEntity = (Item) ent;
+                ItemStack stack = itemEntity.getItemStack();
+                if (stack == null) continue;
+                if (blocklist.contains(stack.getType())) continue;
+                if (sample.size() < SAMPLE_LIMIT) sample.add(stack.clone());
+                itemEntity.remove();
+                removed++;
+            } catch (Throwable inner) {
+                logger.warning("ClearLag: failed handling an item entity: " + inner.getMessage());
+            }
+        }
+        return removed;
+    }
+}
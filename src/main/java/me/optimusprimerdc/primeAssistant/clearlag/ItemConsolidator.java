@@ -0,0 +1,91 @@
+package me.optimusprimerdc.primeAssistant.clearlag;
+
+import me.optimusprimerdc.primeAssistant.util.BlockKeys;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges dropped items of the same kind that lie close together into full stacks.
+ *
+ * A chunk's items are bucketed into a spatial hash of cubic cells (the cell size is the merge radius),
+ * and each item is only compared with the not-yet-full stacks in its own cell, so a chunk costs one
+ * pass over its entities instead of a nearby-entity query per item. Stacks merge only when
+ * ItemStack#isSimilar holds and never past the max stack size. Items reserved for a specific player
+ * are left alone. Main thread only; one instance can be reused for any number of chunks.
+ */
+public class ItemConsolidator {
+
+    private final double cellSize;
+    private final Map<Long, List<Item>> cells = new HashMap<>();
+
+    public ItemConsolidator(double cellSize) {
+        this.cellSize = Math.max(0.5, cellSize);
+    }
+
+    /**
+     * Merge the chunk's items. Returns the number of item entities merged away.
+     */
+    public int consolidate(Chunk chunk) {
+        cells.clear();
+        int removed = 0;
+        for (Entity ent : chunk.getEntities()) {
+            if (!(ent instanceof Item) || !ent.isValid()) continue;
+            Item item = (Item) ent;
+            if (item.getOwner() != null) continue;
+            ItemStack stack = item.getItemStack();
+            if (stack == null || stack.getAmount() <= 0) continue;
+
+            Location l = item.getLocation();
+            long cell = BlockKeys.pack((int) Math.floor(l.getX() / cellSize), (int) Math.floor(l.getY() / cellSize),
+                    (int) Math.floor(l.getZ() / cellSize));
+            List<Item> open = cells.computeIfAbsent(cell, k -> new ArrayList<>(4));
+            if (mergeInto(open, item, stack)) {
+                removed++;
+            }
+        }
+        cells.clear();
+        return removed;
+    }
+
+    /**
+     * Move as much of the item as fits into similar open stacks of the cell. Returns true if the item
+     * was used up and removed; otherwise it becomes an open stack itself.
+     */
+    private boolean mergeInto(List<Item> open, Item item, ItemStack stack) {
+        int left = stack.getAmount();
+        for (int i = 0; i < open.size() && left > 0; i++) {
+            Item target = open.get(i);
+            ItemStack into = target.getItemStack();
+            int max = into.getMaxStackSize();
+            int space = max - into.getAmount();
+            if (space <= 0) {
+                open.remove(i--);
+                continue;
+            }
+            if (!into.isSimilar(stack)) continue;
+            int moved = Math.min(space, left);
+            into.setAmount(into.getAmount() + moved);
+            target.setItemStack(into);
+            left -= moved;
+            if (into.getAmount() >= max) open.remove(i--);
+        }
+        if (left <= 0) {
+            item.remove();
+            return true;
+        }
+        if (left != stack.getAmount()) {
+            stack.setAmount(left);
+            item.setItemStack(stack);
+        }
+        if (left < stack.getMaxStackSize()) open.add(item);
+        return false;
+    }
+}
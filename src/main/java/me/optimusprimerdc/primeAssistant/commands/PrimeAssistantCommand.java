@@ -1,7 +1,9 @@
 package me.optimusprimerdc.primeAssistant.commands;
 
 import me.optimusprimerdc.primeAssistant.PrimeAssistant;
+import me.optimusprimerdc.primeAssistant.commands.subcommands.RedstoneCommand;
 import me.optimusprimerdc.primeAssistant.commands.subcommands.ReloadCommand;
+import me.optimusprimerdc.primeAssistant.commands.subcommands.StatsCommand;
 import me.optimusprimerdc.primeAssistant.commands.subcommands.UnbanCommand;
 import me.optimusprimerdc.primeAssistant.commands.subcommands.UnmuteCommand;
 import org.bukkit.ChatColor;
@@ -20,6 +22,8 @@ public class PrimeAssistantCommand implements CommandExecutor, TabCompleter {
     private final ReloadCommand reloadCommand;
     private final UnbanCommand unbanCommand;
     private final UnmuteCommand unmuteCommand;
+    private final RedstoneCommand redstoneCommand;
+    private final StatsCommand statsCommand;
     private final String prefix;
 
     public PrimeAssistantCommand(PrimeAssistant plugin) {
@@ -27,6 +31,8 @@ public class PrimeAssistantCommand implements CommandExecutor, TabCompleter {
         this.reloadCommand = new ReloadCommand(plugin);
         this.unbanCommand = new UnbanCommand(plugin);
         this.unmuteCommand = new UnmuteCommand(plugin);
+        this.redstoneCommand = new RedstoneCommand(plugin);
+        this.statsCommand = new StatsCommand(plugin);
         this.prefix = ChatColor.translateAlternateColorCodes('&',
                 plugin.getConfig().getString("prefix", "&8[&6PrimeAssistant&8] &r"));
     }
@@ -38,6 +44,8 @@ public class PrimeAssistantCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant reload " + ChatColor.GRAY + "- Reload the configuration");
             sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant unban <player> " + ChatColor.GRAY + "- Unban a player");
             sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant unmute <player> " + ChatColor.GRAY + "- Unmute a player");
+            sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant redstone <top|profile> " + ChatColor.GRAY + "- Inspect redstone hotspots");
+            sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant stats " + ChatColor.GRAY + "- Show leaf decay metrics");
             return true;
         }
 
@@ -54,6 +62,10 @@ public class PrimeAssistantCommand implements CommandExecutor, TabCompleter {
                 String[] subArgs = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : new String[0];
                 return unmuteCommand.onCommand(sender, command, label, subArgs);
             }
+            case "redstone":
+                return redstoneCommand.execute(sender, args);
+            case "stats":
+                return statsCommand.execute(sender, args);
             default:
                 sender.sendMessage(prefix + ChatColor.RED + "Unknown subcommand: '" + args[0] + "'. Use /primeassistant for help.");
                 return true;
@@ -69,6 +81,10 @@ public class PrimeAssistantCommand implements CommandExecutor, TabCompleter {
             if ("reload".startsWith(current)) completions.add("reload");
             if ("unban".startsWith(current)) completions.add("unban");
             if ("unmute".startsWith(current)) completions.add("unmute");
+            if ("redstone".startsWith(current)) completions.add("redstone");
+            if ("stats".startsWith(current)) completions.add("stats");
+        } else if ("redstone".equalsIgnoreCase(args[0])) {
+            completions.addAll(redstoneCommand.tabComplete(args));
         } else if (args.length == 2) {
             String subCommand = args[0].toLowerCase();
             if ("unban".equals(subCommand) || "unmute".equals(subCommand)) {
@@ -0,0 +1,199 @@
+package me.optimusprimerdc.primeAssistant.commands.subcommands;
+
+import me.optimusprimerdc.primeAssistant.PrimeAssistant;
+import me.optimusprimerdc.primeAssistant.integration.hooks.WorldGuard.WorldGuard;
+import me.optimusprimerdc.primeAssistant.listener.Redstone;
+import me.optimusprimerdc.primeAssistant.redstone.ActivityScores;
+import me.optimusprimerdc.primeAssistant.redstone.HopperLimiter;
+import me.optimusprimerdc.primeAssistant.redstone.RedstoneProfiler;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class RedstoneCommand {
+
+    private static final int DEFAULT_TOP = 5;
+
+    private final PrimeAssistant plugin;
+    private final String prefix;
+
+    public RedstoneCommand(PrimeAssistant plugin) {
+        this.plugin = plugin;
+        this.prefix = ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfig().getString("prefix", "&8[&6PrimeAssistant&8] &r"));
+    }
+
+    public boolean execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("primeassistant.redstone")) {
+            sender.sendMessage(prefix + ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+
+        Redstone redstone = plugin.getRedstone();
+        if (redstone == null) {
+            sender.sendMessage(prefix + ChatColor.RED + "Redstone protection is not running.");
+            return true;
+        }
+
+        String action = args.length > 1 ? args[1].toLowerCase(Locale.ROOT) : "";
+        switch (action) {
+            case "top":
+                return top(sender, redstone, args);
+            case "profile":
+                return profile(sender, redstone, args);
+            default:
+                sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant redstone top [n] [world] " + ChatColor.GRAY + "- Busiest redstone chunks");
+                sender.sendMessage(prefix + ChatColor.YELLOW + "/primeassistant redstone profile <seconds> [csv|ndjson] " + ChatColor.GRAY + "- Record a report to the plugin folder");
+                return true;
+        }
+    }
+
+    private boolean top(CommandSender sender, Redstone redstone, String[] args) {
+        int n = DEFAULT_TOP;
+        if (args.length > 2) {
+            try {
+                n = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(prefix + ChatColor.RED + "Not a number: " + args[2]);
+                return true;
+            }
+        }
+        n = Math.max(1, Math.min(redstone.getRedstoneActivity().capacity(), n));
+
+        World world = null;
+        if (args.length > 3) {
+            world = Bukkit.getWorld(args[3]);
+            if (world == null) {
+                sender.sendMessage(prefix + ChatColor.RED + "Unknown world: " + args[3]);
+                return true;
+            }
+        }
+
+        long tick = redstone.getTickMonitor().getCurrentTick();
+        ActivityScores cost = redstone.getCostActivity();
+
+        Map<Long, Double> costs = new HashMap<>();
+        if (world == null) {
+            long[] keys = new long[cost.capacity()];
+            double[] rates = new double[keys.length];
+            int found = cost.top(keys.length, tick, keys, rates);
+            for (int i = 0; i < found; i++) costs.put(keys[i], rates[i]);
+        } else {
+            // the ranking spans all worlds, so a world filter needs the full table
+            int worldIndex = ChunkKeys.worldIndex(world);
+            cost.forEach(tick, (key, rate) -> {
+                if (ChunkKeys.worldIndex(key) == worldIndex) costs.put(key, rate);
+            });
+        }
+        List<Long> ranked = new ArrayList<>(costs.keySet());
+        ranked.sort((a, b) -> Double.compare(costs.get(b), costs.get(a)));
+
+        String scope = world == null ? "all worlds" : world.getName();
+        if (ranked.isEmpty()) {
+            sender.sendMessage(prefix + ChatColor.GREEN + "No redstone activity recorded in " + scope + ".");
+            return true;
+        }
+
+        sender.sendMessage(prefix + ChatColor.GOLD + "Busiest redstone chunks (" + scope + "):");
+        for (int i = 0; i < Math.min(n, ranked.size()); i++) {
+            long key = ranked.get(i);
+            int cx = ChunkKeys.chunkX(key);
+            int cz = ChunkKeys.chunkZ(key);
+            String regions = describeRegions(redstone, key);
+            sender.sendMessage(ChatColor.YELLOW + "#" + (i + 1) + " " + ChatColor.WHITE + ChunkKeys.worldName(key) + " "
+                    + (cx << 4) + ", " + (cz << 4) + ChatColor.GRAY + " (chunk " + cx + ", " + cz + ")"
+                    + ChatColor.WHITE + ": cost " + format(costs.get(key)) + ChatColor.GRAY + "/s"
+                    + (regions.isEmpty() ? "" : ChatColor.AQUA + " [" + regions + "]"));
+            sender.sendMessage(ChatColor.GRAY + "    " + format(redstone.getRedstoneActivity().rate(key, tick)) + " redstone, "
+                    + format(redstone.getObserverActivity().rate(key, tick)) + " observer, "
+                    + format(redstone.getPistonActivity().rate(key, tick)) + " piston blocks, "
+                    + format(redstone.getDispenserActivity().rate(key, tick)) + " dispense, "
+                    + format(redstone.getHopperActivity().rate(key, tick)) + " hopper moves ("
+                    + format(redstone.getHopperDeniedActivity().rate(key, tick)) + " denied) per second");
+        }
+        HopperLimiter hoppers = redstone.getHopperLimiter();
+        if (hoppers.getDenied() > 0) {
+            sender.sendMessage(ChatColor.GRAY + "Hopper limiter: " + hoppers.getDenied() + " of "
+                    + (hoppers.getAllowed() + hoppers.getDenied()) + " limited transfers denied since startup.");
+        }
+        return true;
+    }
+
+    private boolean profile(CommandSender sender, Redstone redstone, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(prefix + ChatColor.RED + "Usage: /primeassistant redstone profile <seconds> [csv|ndjson]");
+            return true;
+        }
+        int seconds;
+        try {
+            seconds = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(prefix + ChatColor.RED + "Not a number: " + args[2]);
+            return true;
+        }
+        if (seconds < 1 || seconds > RedstoneProfiler.MAX_SECONDS) {
+            sender.sendMessage(prefix + ChatColor.RED + "Seconds must be between 1 and " + RedstoneProfiler.MAX_SECONDS + ".");
+            return true;
+        }
+        boolean ndjson = args.length > 3 && "ndjson".equalsIgnoreCase(args[3]);
+
+        if (!redstone.getProfiler().start(seconds, ndjson, sender)) {
+            sender.sendMessage(prefix + ChatColor.RED + "A redstone profile is already running.");
+            return true;
+        }
+        sender.sendMessage(prefix + ChatColor.GREEN + "Recording redstone activity for " + seconds + "s ("
+                + (ndjson ? "NDJSON" : "CSV") + ").");
+        plugin.getLogger().info(sender.getName() + " started a " + seconds + "s redstone profile.");
+        return true;
+    }
+
+    public List<String> tabComplete(String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            String current = args[1].toLowerCase(Locale.ROOT);
+            if ("top".startsWith(current)) completions.add("top");
+            if ("profile".startsWith(current)) completions.add("profile");
+        } else if (args.length == 4 && "top".equalsIgnoreCase(args[1])) {
+            String current = args[3].toLowerCase(Locale.ROOT);
+            for (World w : Bukkit.getWorlds()) {
+                if (w.getName().toLowerCase(Locale.ROOT).startsWith(current)) completions.add(w.getName());
+            }
+        } else if (args.length == 4 && "profile".equalsIgnoreCase(args[1])) {
+            String current = args[3].toLowerCase(Locale.ROOT);
+            if ("csv".startsWith(current)) completions.add("csv");
+            if ("ndjson".startsWith(current)) completions.add("ndjson");
+        }
+        return completions;
+    }
+
+    /**
+     * WorldGuard regions at the chunk, sampled at an indexed component when one is known.
+     */
+    private String describeRegions(Redstone redstone, long key) {
+        World world = ChunkKeys.world(key);
+        if (world == null) return "";
+        int[] sample = {(ChunkKeys.chunkX(key) << 4) + 8, 64, (ChunkKeys.chunkZ(key) << 4) + 8};
+        boolean[] found = {false};
+        redstone.getIndex().forEach(key, (x, y, z, type) -> {
+            if (found[0]) return;
+            sample[0] = x;
+            sample[1] = y;
+            sample[2] = z;
+            found[0] = true;
+        });
+        return String.join(", ", WorldGuard.getRegionIdsAt(new Location(world, sample[0], sample[1], sample[2])));
+    }
+
+    private static String format(double v) {
+        return String.format(Locale.ROOT, "%.1f", v);
+    }
+}
@@ -0,0 +1,60 @@
+package me.optimusprimerdc.primeAssistant.commands.subcommands;
+
+import me.optimusprimerdc.primeAssistant.PrimeAssistant;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayMetrics;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayScheduler;
+import me.optimusprimerdc.primeAssistant.listener.FastLeafDecay;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.util.Locale;
+
+public class StatsCommand {
+
+    private final PrimeAssistant plugin;
+    private final String prefix;
+
+    public StatsCommand(PrimeAssistant plugin) {
+        this.plugin = plugin;
+        this.prefix = ChatColor.translateAlternateColorCodes('&',
+                plugin.getConfig().getString("prefix", "&8[&6PrimeAssistant&8] &r"));
+    }
+
+    public boolean execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("primeassistant.stats")) {
+            sender.sendMessage(prefix + ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+
+        FastLeafDecay leafDecay = plugin.getFastLeafDecay();
+        if (leafDecay == null) {
+            sender.sendMessage(prefix + ChatColor.RED + "Fast leaf decay is not running.");
+            return true;
+        }
+
+        DecayMetrics m = leafDecay.getMetrics();
+        DecayScheduler scheduler = leafDecay.getScheduler();
+        sender.sendMessage(prefix + ChatColor.GOLD + "Fast leaf decay since startup:");
+        sender.sendMessage(ChatColor.GRAY + "Trees: " + ChatColor.WHITE + m.getTrees() + ChatColor.GRAY + " planned, "
+                + ChatColor.WHITE + m.getTruncated() + ChatColor.GRAY + " cut off at the leaf cap, "
+                + ChatColor.WHITE + m.getDropped() + ChatColor.GRAY + " dropped with their chunk");
+        sender.sendMessage(ChatColor.GRAY + "Leaves: " + ChatColor.WHITE + m.getInspected() + ChatColor.GRAY + " inspected, "
+                + ChatColor.WHITE + m.getPlanned() + ChatColor.GRAY + " planned, "
+                + ChatColor.WHITE + m.getBroken() + ChatColor.GRAY + " broken, "
+                + ChatColor.WHITE + m.getSkipped() + ChatColor.GRAY + " skipped");
+        long ticks = m.getBusyTicks();
+        sender.sendMessage(ChatColor.GRAY + "Main thread: " + ChatColor.WHITE + millis(ticks == 0 ? 0 : m.getBusyNanos() / ticks)
+                + ChatColor.GRAY + " avg / " + ChatColor.WHITE + millis(m.getMaxTickNanos()) + ChatColor.GRAY + " max per tick over "
+                + ChatColor.WHITE + ticks + ChatColor.GRAY + " ticks, last " + ChatColor.WHITE + millis(m.getLastTickNanos())
+                + ChatColor.GRAY + "; snapshots " + ChatColor.WHITE + millis(m.getTrees() == 0 ? 0 : m.getCaptureNanos() / m.getTrees())
+                + ChatColor.GRAY + " per tree");
+        sender.sendMessage(ChatColor.GRAY + "Queue: " + ChatColor.WHITE + scheduler.pendingTrees() + ChatColor.GRAY + " trees / "
+                + ChatColor.WHITE + scheduler.pendingLeaves() + ChatColor.GRAY + " leaves pending, "
+                + ChatColor.WHITE + leafDecay.getPlanningCount() + ChatColor.GRAY + " being planned");
+        return true;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1_000_000.0);
+    }
+}
@@ -66,6 +66,94 @@ public class ConfigManager {
         return plugin.getConfig().getBoolean("redstone-protection.enable-purge", true);
     }
 
+    public String getRedstonePurgeAction() {
+        return getString("redstone-protection.purge-action", "FREEZE");
+    }
+
+    public String getRedstoneFreezePlaceholder() {
+        return getString("redstone-protection.freeze-placeholder", "STRUCTURE_VOID");
+    }
+
+    public double getRedstonePurgeTickBudgetMillis() {
+        return plugin.getConfig().getDouble("redstone-protection.purge-tick-budget-ms", 1.0);
+    }
+
+    public double getRedstoneActivityHalfLifeSeconds() {
+        return plugin.getConfig().getDouble("redstone-protection.activity.half-life-seconds", 10.0);
+    }
+
+    public int getRedstoneActivityTopK() {
+        return getInt("redstone-protection.activity.top-k", 32);
+    }
+
+    public boolean isRedstoneClockDetectorEnabled() {
+        return getBoolean("redstone-protection.clock-detector.enabled", true);
+    }
+
+    public int getRedstoneClockMaxPeriodTicks() {
+        return getInt("redstone-protection.clock-detector.max-period-ticks", 10);
+    }
+
+    public int getRedstoneClockMinDurationSeconds() {
+        return getInt("redstone-protection.clock-detector.min-duration-seconds", 30);
+    }
+
+    public String getRedstoneClockAction() {
+        return getString("redstone-protection.clock-detector.action", "THROTTLE");
+    }
+
+    public int getRedstoneClockHoldSeconds() {
+        return getInt("redstone-protection.clock-detector.hold-seconds", 60);
+    }
+
+    public int getRedstoneClockTrackedPositions() {
+        return getInt("redstone-protection.clock-detector.tracked-positions", 8192);
+    }
+
+    public String getRedstoneMode() {
+        return getString("redstone-protection.mode", "THROTTLE");
+    }
+
+    public int getRedstoneChunkUpdatesPerSecond() {
+        return getInt("redstone-protection.throttle.chunk-updates-per-second", 2000);
+    }
+
+    public double getRedstoneMinBudgetScale() {
+        return plugin.getConfig().getDouble("redstone-protection.throttle.min-budget-scale", 0.1);
+    }
+
+    public double getRedstoneReleaseTps() {
+        return plugin.getConfig().getDouble("redstone-protection.hysteresis.release-tps", 18.0);
+    }
+
+    public int getRedstoneMinHoldSeconds() {
+        return getInt("redstone-protection.hysteresis.min-hold-seconds", 30);
+    }
+
+    public int getRedstoneRecoverySeconds() {
+        return getInt("redstone-protection.hysteresis.recovery-seconds", 10);
+    }
+
+    public boolean isRedstoneHopperLimitEnabled() {
+        return getBoolean("redstone-protection.hoppers.enabled", true);
+    }
+
+    public double getRedstoneHopperEnforceAboveTickMillis() {
+        return plugin.getConfig().getDouble("redstone-protection.hoppers.enforce-above-tick-ms", 55.0);
+    }
+
+    public int getRedstoneHopperChunkTransfersPerSecond() {
+        return getInt("redstone-protection.hoppers.chunk-transfers-per-second", 200);
+    }
+
+    public int getRedstoneHopperTransfersPerSecond() {
+        return getInt("redstone-protection.hoppers.hopper-transfers-per-second", 2);
+    }
+
+    public double getRedstoneCost(String kind, double def) {
+        return Math.max(0.0, plugin.getConfig().getDouble("redstone-protection.cost." + kind, def));
+    }
+
     // ChatFiltering
     public String getChatWebhookUrl() {
         return getString("chat-filter.webhook-url", "");
@@ -158,10 +246,87 @@ public class ConfigManager {
         return getInt("clearlag.warning-seconds", 30);
     }
 
+    public double getClearlagTickBudgetMillis() {
+        return plugin.getConfig().getDouble("clearlag.tick-budget-ms", 2.0);
+    }
+
+    public int getClearlagLogMaxSizeKb() {
+        return getInt("clearlag.log.max-size-kb", 5120);
+    }
+
+    public boolean isClearlagLogCompressRotated() {
+        return getBoolean("clearlag.log.compress-rotated", true);
+    }
+
+    public int getClearlagLogFsyncIntervalMillis() {
+        return getInt("clearlag.log.fsync-interval-ms", 1000);
+    }
+
+    public boolean isClearlagAdaptiveEnabled() {
+        return getBoolean("clearlag.adaptive.enabled", false);
+    }
+
+    public int getClearlagAdaptiveCheckIntervalTicks() {
+        return getInt("clearlag.adaptive.check-interval-ticks", 20);
+    }
+
+    public int getClearlagAdaptiveChunkItemLimit() {
+        return getInt("clearlag.adaptive.chunk-item-limit", 400);
+    }
+
+    public int getClearlagAdaptivePressureChunkItemLimit() {
+        return getInt("clearlag.adaptive.pressure-chunk-item-limit", 150);
+    }
+
+    public double getClearlagAdaptiveTickMillisLimit() {
+        return plugin.getConfig().getDouble("clearlag.adaptive.tick-ms-limit", 55.0);
+    }
+
+    public int getClearlagAdaptiveMaxChunksPerCheck() {
+        return getInt("clearlag.adaptive.max-chunks-per-check", 8);
+    }
+
+    public boolean isClearlagMergeEnabled() {
+        return getBoolean("clearlag.merge.enabled", false);
+    }
+
+    public double getClearlagMergeRadius() {
+        return plugin.getConfig().getDouble("clearlag.merge.radius", 2.0);
+    }
+
+    public boolean isClearlagMergeRemoveAfter() {
+        return getBoolean("clearlag.merge.remove-after-merge", true);
+    }
+
+    public int getClearlagMergeRemoveMinItems() {
+        return getInt("clearlag.merge.remove-min-items", 32);
+    }
+
     public List<String> getClearlagBlocklist() {
         return getStringList("clearlag.blocklist");
     }
 
+    // Fast leaf decay
+    public double getLeafDecayTickBudgetMillis() {
+        return plugin.getConfig().getDouble("fast-leaf-decay.tick-budget-ms", 1.0);
+    }
+
+    public boolean isLeafDecayAggregateDrops() {
+        return getBoolean("fast-leaf-decay.aggregate-drops", false);
+    }
+
+    public int getLeafDecayPlacedExpireMinutes() {
+        return getInt("fast-leaf-decay.placed-leaves-expire-minutes", 0);
+    }
+
+    public int getLeafDecayMetricsIntervalSeconds() {
+        return getInt("fast-leaf-decay.metrics.log-interval-seconds", 0);
+    }
+
+    public int getLeafDecayMetricsMaxFileKb() {
+        return getInt("fast-leaf-decay.metrics.max-file-kb", 1024);
+    }
+
     // Gunpowder
     public boolean isGunpowderEnabled() {
         return getBoolean("gunpowder.enabled", true);
@@ -9,7 +9,9 @@ import org.bukkit.plugin.Plugin;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -179,6 +181,38 @@ public final class WorldGuard {
         return CONSERVATIVE ? false : true;
     }
 
+    /**
+     * Ids of the WorldGuard regions covering the location, or an empty list if WG is missing or the lookup fails.
+     */
+    public static List<String> getRegionIdsAt(final Location loc) {
+        List<String> ids = new ArrayList<>();
+        Plugin wg = Bukkit.getPluginManager().getPlugin("WorldGuard");
+        if (wg == null || !wg.isEnabled() || loc == null || loc.getWorld() == null) return ids;
+
+        try {
+            Class<?> worldguardClass = Class.forName("com.sk89q.worldguard.WorldGuard");
+            Object wgInstance = worldguardClass.getMethod("getInstance").invoke(null);
+            Object platform = worldguardClass.getMethod("getPlatform").invoke(wgInstance);
+            Object regionContainer = platform.getClass().getMethod("getRegionContainer").invoke(platform);
+
+            Class<?> bukkitAdapter = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
+            Object weWorld = bukkitAdapter.getMethod("adapt", World.class).invoke(null, loc.getWorld());
+            Class<?> weWorldClass = Class.forName("com.sk89q.worldedit.world.World");
+            Object regionManager = regionContainer.getClass().getMethod("get", weWorldClass).invoke(regionContainer, weWorld);
+            Object blockVector3 = tryCreateBlockVector(loc);
+            if (regionManager == null || blockVector3 == null) return ids;
+
+            Object regions = regionManager.getClass().getMethod("getApplicableRegions", blockVector3.getClass()).invoke(regionManager, blockVector3);
+            if (regions instanceof Iterable) {
+                for (Object region : (Iterable<?>) regions) {
+                    Object id = region.getClass().getMethod("getId").invoke(region);
+                    if (id != null) ids.add(id.toString());
+                }
+            }
+        } catch (Throwable ignored) {}
+        return ids;
+    }
+
     private static boolean hasAnyRegion(Object regionContainer, Object adaptedLocation, World world) {
         if (regionContainer == null || adaptedLocation == null || world == null) return false;
         try {
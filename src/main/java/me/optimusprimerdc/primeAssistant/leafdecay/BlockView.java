@@ -0,0 +1,25 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * Read-only access to block data by world coordinates, so the decay logic can run against the live
+ * world or a captured snapshot.
+ */
+@FunctionalInterface
+public interface BlockView {
+
+    /**
+     * Block data at the position, or null when the position is outside what this view can see.
+     */
+    BlockData get(int x, int y, int z);
+
+    /**
+     * Live view of a world's loaded chunks; blocks in unloaded chunks read as null rather than loading
+     * the chunk. Main thread only.
+     */
+    static BlockView of(World world) {
+        return (x, y, z) -> world.isChunkLoaded(x >> 4, z >> 4) ? world.getBlockData(x, y, z) : null;
+    }
+}
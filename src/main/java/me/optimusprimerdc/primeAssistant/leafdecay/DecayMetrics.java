@@ -0,0 +1,122 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+/**
+ * Counters and timers for fast leaf decay, totalled since the plugin enabled.
+ *
+ * Trees and leaves are counted as plans arrive and as the scheduler works through them. Main-thread
+ * time is measured in two places: capturing chunk snapshots for a plan, and each scheduler run. The
+ * highest tick time is kept both for the lifetime and for the window since takeWindowMaxTickNanos()
+ * was last called, so a periodic log can report per-window spikes. Main thread only.
+ */
+public final class DecayMetrics {
+
+    private long trees;
+    private long truncated;
+    private long inspected;
+    private long planned;
+    private long broken;
+    private long skipped;
+    private long dropped;
+    private long captureNanos;
+    private long busyTicks;
+    private long busyNanos;
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private long windowMaxTickNanos;
+
+    void recordPlan(DecayPlan plan) {
+        trees++;
+        if (plan.isTruncated()) truncated++;
+        inspected += plan.getInspected();
+        planned += plan.getPositions().length;
+    }
+
+    void recordCapture(long nanos) {
+        captureNanos += nanos;
+    }
+
+    void recordTick(long nanos) {
+        busyTicks++;
+        busyNanos += nanos;
+        lastTickNanos = nanos;
+        if (nanos > maxTickNanos) maxTickNanos = nanos;
+        if (nanos > windowMaxTickNanos) windowMaxTickNanos = nanos;
+    }
+
+    void leafBroken() {
+        broken++;
+    }
+
+    void leafSkipped() {
+        skipped++;
+    }
+
+    void treeDropped() {
+        dropped++;
+    }
+
+    /** Trees planned. */
+    public long getTrees() {
+        return trees;
+    }
+
+    /** Trees whose traversal stopped at the leaf cap. */
+    public long getTruncated() {
+        return truncated;
+    }
+
+    /** Positions probed by the traversals, leaf or not. */
+    public long getInspected() {
+        return inspected;
+    }
+
+    /** Leaves the traversals found to be decaying. */
+    public long getPlanned() {
+        return planned;
+    }
+
+    public long getBroken() {
+        return broken;
+    }
+
+    /** Planned leaves that were no longer decayable, or in an unloaded chunk, when their turn came. */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /** Trees abandoned because their chunk unloaded. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /** Main-thread time spent capturing chunk snapshots for plans. */
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    /** Ticks in which the scheduler ran. */
+    public long getBusyTicks() {
+        return busyTicks;
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Highest tick time since the previous call, then start a new window.
+     */
+    public long takeWindowMaxTickNanos() {
+        long max = windowMaxTickNanos;
+        windowMaxTickNanos = 0L;
+        return max;
+    }
+}
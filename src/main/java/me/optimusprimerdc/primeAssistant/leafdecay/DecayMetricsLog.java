@@ -0,0 +1,109 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.util.LogAppender;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+/**
+ * Appends a CSV line of leaf decay metrics to leafdecay-metrics.csv in the plugin folder at a fixed
+ * interval, so deforestation can be lined up against the tick interval.
+ *
+ * Counters are written as deltas over the interval; queue depth and the 5 second tick interval are
+ * the values at the time of the line. The line is built on the main thread and handed to a
+ * LogAppender, which rotates the file past the size limit and starts each new file with the header.
+ */
+public class DecayMetricsLog {
+
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000L;
+    private static final long FSYNC_INTERVAL_MILLIS = 1000L;
+    private static final String HEADER = "timestamp,trees,truncated,inspected,planned,broken,skipped,dropped," +
+            "capture_ms,busy_ticks,busy_ms,max_tick_us,pending_trees,pending_leaves,planning,tick_ms\n";
+
+    private final Plugin plugin;
+    private final DecayMetrics metrics;
+    private final DecayScheduler scheduler;
+    private final IntSupplier planning;
+    private final TickMonitor tickMonitor;
+    private final LogAppender log;
+    private final long[] previous = new long[9];
+    private long previousBusyNanos;
+    private BukkitTask task;
+
+    public DecayMetricsLog(Plugin plugin, DecayMetrics metrics, DecayScheduler scheduler, IntSupplier planning, TickMonitor tickMonitor) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.planning = planning;
+        this.tickMonitor = tickMonitor;
+        this.log = new LogAppender(plugin.getDataFolder().toPath().resolve("leafdecay-metrics.csv"), HEADER,
+                plugin.getLogger(), QUEUE_CAPACITY);
+    }
+
+    /**
+     * (Re)start logging every intervalSeconds; 0 or less stops it.
+     */
+    public void start(int intervalSeconds, long maxBytes) {
+        stop();
+        log.configure(Math.max(4096L, maxBytes), false, FSYNC_INTERVAL_MILLIS);
+        if (intervalSeconds <= 0) return;
+        log.start();
+        counters(previous);
+        previousBusyNanos = metrics.getBusyNanos();
+        metrics.takeWindowMaxTickNanos();
+        long period = intervalSeconds * 20L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, period, period);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Stop sampling and flush the file; used when the plugin is disabled.
+     */
+    public void close() {
+        stop();
+        log.close(CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private void counters(long[] out) {
+        out[0] = metrics.getTrees();
+        out[1] = metrics.getTruncated();
+        out[2] = metrics.getInspected();
+        out[3] = metrics.getPlanned();
+        out[4] = metrics.getBroken();
+        out[5] = metrics.getSkipped();
+        out[6] = metrics.getDropped();
+        out[7] = metrics.getCaptureNanos();
+        out[8] = metrics.getBusyTicks();
+    }
+
+    private void sample() {
+        long[] now = new long[previous.length];
+        counters(now);
+        long busyNanos = metrics.getBusyNanos();
+        long[] delta = new long[now.length];
+        for (int i = 0; i < now.length; i++) {
+            delta[i] = now[i] - previous[i];
+        }
+        System.arraycopy(now, 0, previous, 0, now.length);
+        long busyDelta = busyNanos - previousBusyNanos;
+        previousBusyNanos = busyNanos;
+
+        String line = String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%d,%.3f,%d,%.3f,%d,%d,%d,%d,%.2f",
+                Instant.now(), delta[0], delta[1], delta[2], delta[3], delta[4], delta[5], delta[6],
+                delta[7] / 1_000_000.0, delta[8], busyDelta / 1_000_000.0, metrics.takeWindowMaxTickNanos() / 1_000L,
+                scheduler.pendingTrees(), scheduler.pendingLeaves(), planning.getAsInt(), tickMonitor.getTickInterval5s());
+        log.append(line + "\n");
+    }
+}
@@ -0,0 +1,59 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import org.bukkit.World;
+
+/**
+ * Result of analysing one tree: the leaves to break (packed with BlockKeys) and what the
+ * traversal looked at to find them.
+ */
+public final class DecayPlan {
+
+    private final World world;
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final long[] positions;
+    private final int inspected;
+    private final boolean truncated;
+
+    public DecayPlan(World world, int originX, int originY, int originZ, long[] positions, int inspected, boolean truncated) {
+        this.world = world;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.positions = positions;
+        this.inspected = inspected;
+        this.truncated = truncated;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /** X of the leaf whose decay event started the plan. */
+    public int getOriginX() {
+        return originX;
+    }
+
+    public int getOriginY() {
+        return originY;
+    }
+
+    public int getOriginZ() {
+        return originZ;
+    }
+
+    public long[] getPositions() {
+        return positions;
+    }
+
+    /** Distinct positions the traversal probed, accepted or not. */
+    public int getInspected() {
+        return inspected;
+    }
+
+    /** True if the traversal stopped at the leaf cap with more of the tree left. */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
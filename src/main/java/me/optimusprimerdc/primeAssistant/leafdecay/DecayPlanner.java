@@ -0,0 +1,89 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.FloodFill;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.function.Consumer;
+
+/**
+ * Works out which leaves of a tree to break without touching the world off-thread.
+ *
+ * The chunks around the decaying leaf are captured as snapshots on the main thread in one go,
+ * together with their placed-leaf records. The flood fill then runs on an async thread against
+ * those copies, and the resulting plan is handed back on the main thread, where the caller must
+ * re-check each position before changing it.
+ */
+public class DecayPlanner {
+
+    // 3x3 chunks: canopies rarely reach more than a chunk away from the leaf that started decaying
+    private static final int RADIUS = 1;
+    private static final int WIDTH = RADIUS * 2 + 1;
+
+    private static final ThreadLocal<FloodFill> FILLS = ThreadLocal.withInitial(FloodFill::new);
+
+    private final Plugin plugin;
+    private final PlacedLeaves placed;
+    private final LogProximity logs;
+    private final DecayMetrics metrics;
+
+    public DecayPlanner(Plugin plugin, PlacedLeaves placed, LogProximity logs, DecayMetrics metrics) {
+        this.plugin = plugin;
+        this.placed = placed;
+        this.logs = logs;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Plan the decay of the tree around the leaf. Must be called on the main thread; the callback
+     * also runs on the main thread, and is skipped if the plugin was disabled in the meantime.
+     */
+    public void plan(World world, int x, int y, int z, int maxLeaves, Consumer<DecayPlan> callback) {
+        long started = System.nanoTime();
+        int worldIndex = ChunkKeys.worldIndex(world);
+        int minChunkX = (x >> 4) - RADIUS;
+        int minChunkZ = (z >> 4) - RADIUS;
+        ChunkSnapshot[] snapshots = new ChunkSnapshot[WIDTH * WIDTH];
+        PlacedLeaves.Snapshot[] records = new PlacedLeaves.Snapshot[WIDTH * WIDTH];
+        for (int dz = 0; dz < WIDTH; dz++) {
+            for (int dx = 0; dx < WIDTH; dx++) {
+                int cx = minChunkX + dx;
+                int cz = minChunkZ + dz;
+                if (!world.isChunkLoaded(cx, cz)) continue;
+                snapshots[dz * WIDTH + dx] = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+                records[dz * WIDTH + dx] = placed.snapshot(ChunkKeys.pack(worldIndex, cx, cz));
+            }
+        }
+        SnapshotView view = new SnapshotView(minChunkX, minChunkZ, WIDTH, world.getMinHeight(), world.getMaxHeight(), snapshots, records);
+        LogProximity.Capture distances = logs.capture(world, minChunkX, minChunkZ, WIDTH, view);
+        metrics.recordCapture(System.nanoTime() - started);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            DecayPlan plan;
+            try {
+                plan = traverse(world, view, distances, x, y, z, maxLeaves);
+            } catch (RuntimeException e) {
+                // still answer, so the caller can release whatever it holds for this tree
+                plugin.getLogger().warning("Leaf decay planning failed: " + e.getMessage());
+                plan = new DecayPlan(world, x, y, z, new long[0], 0, false);
+            }
+            DecayPlan result = plan;
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                logs.publish(distances);
+                metrics.recordPlan(result);
+                callback.accept(result);
+            });
+        });
+    }
+
+    private static DecayPlan traverse(World world, SnapshotView view, LogDistance distances, int x, int y, int z, int maxLeaves) {
+        FloodFill fill = FILLS.get();
+        fill.run(x, y, z, FloodFill.CUBE, maxLeaves,
+                (px, py, pz) -> !view.isPlaced(px, py, pz) && LeafSupport.isDecayable(view, distances, px, py, pz));
+        return new DecayPlan(world, x, y, z, fill.copyAccepted(), fill.visitedCount(), fill.isTruncated());
+    }
+}
@@ -0,0 +1,207 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.util.BlockKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Breaks the leaves of planned trees from one queue shared by every tree.
+ *
+ * A single applier task spends at most the configured time per tick, so many trees decaying at once
+ * cost the same per tick as one. Trees are ordered by distance from their origin to the nearest player
+ * in the same world and reordered once a second; trees whose origin chunk unloads are dropped, and
+ * leaves in unloaded chunks are skipped rather than loading them. Every leaf is re-checked against the
+ * live world before it is broken. When drop aggregation is on, a tree's drops are collected while it
+ * is broken and spawned as a few stacks once it is finished. Main thread only.
+ */
+public class DecayScheduler {
+
+    private static final long REPRIORITISE_TICKS = 20L;
+
+    private final Plugin plugin;
+    private final PlacedLeaves playerPlaced;
+    private final LogProximity logs;
+    private final DecayMetrics metrics;
+    private final List<DecayJob> jobs = new ArrayList<>();
+    private long tickBudgetNanos;
+    private boolean aggregateDrops;
+    private long ticks = 0L;
+    private BukkitTask applyTask;
+
+    public DecayScheduler(Plugin plugin, PlacedLeaves playerPlaced, LogProximity logs, DecayMetrics metrics,
+                          double tickBudgetMillis, boolean aggregateDrops) {
+        this.plugin = plugin;
+        this.playerPlaced = playerPlaced;
+        this.logs = logs;
+        this.metrics = metrics;
+        this.aggregateDrops = aggregateDrops;
+        setTickBudgetMillis(tickBudgetMillis);
+    }
+
+    public void setTickBudgetMillis(double millis) {
+        this.tickBudgetNanos = (long) (Math.max(0.05, millis) * 1_000_000L);
+    }
+
+    /**
+     * Collect each tree's drops and spawn them merged when the tree is done, instead of dropping items
+     * leaf by leaf. Applies to trees submitted afterwards.
+     */
+    public void setAggregateDrops(boolean aggregateDrops) {
+        this.aggregateDrops = aggregateDrops;
+    }
+
+    public int pendingTrees() {
+        return jobs.size();
+    }
+
+    /**
+     * Planned leaves not yet worked through, across all queued trees.
+     */
+    public int pendingLeaves() {
+        int n = 0;
+        for (DecayJob job : jobs) {
+            n += job.plan.getPositions().length - job.cursor;
+        }
+        return n;
+    }
+
+    /**
+     * Queue the plan's leaves. onDone runs on the main thread once the plan is finished or dropped.
+     */
+    public void submit(DecayPlan plan, Runnable onDone) {
+        if (plan.getPositions().length == 0) {
+            onDone.run();
+            return;
+        }
+        DecayJob job = new DecayJob(plan, onDone, aggregateDrops ? new DropPile() : null);
+        job.priority = nearestPlayerDistanceSquared(plan);
+        jobs.add(job);
+        jobs.sort(Comparator.comparingDouble(j -> j.priority));
+        if (applyTask == null) {
+            ticks = 0L;
+            applyTask = Bukkit.getScheduler().runTaskTimer(plugin, this::applyBatch, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (applyTask != null) {
+            applyTask.cancel();
+            applyTask = null;
+        }
+        for (DecayJob job : jobs) {
+            job.finish();
+        }
+        jobs.clear();
+    }
+
+    private void applyBatch() {
+        long started = System.nanoTime();
+        if (++ticks % REPRIORITISE_TICKS == 0) reprioritise();
+
+        long deadline = started + tickBudgetNanos;
+        while (!jobs.isEmpty()) {
+            DecayJob job = jobs.get(0);
+            if (!job.apply(deadline)) break;
+            jobs.remove(0);
+            job.finish();
+        }
+        metrics.recordTick(System.nanoTime() - started);
+        if (!jobs.isEmpty()) return;
+        applyTask.cancel();
+        applyTask = null;
+    }
+
+    private void reprioritise() {
+        for (int i = jobs.size() - 1; i >= 0; i--) {
+            DecayJob job = jobs.get(i);
+            DecayPlan plan = job.plan;
+            if (!plan.getWorld().isChunkLoaded(plan.getOriginX() >> 4, plan.getOriginZ() >> 4)) {
+                // vanilla fires the decay event again once the chunk is back and the leaves tick
+                jobs.remove(i);
+                metrics.treeDropped();
+                job.finish();
+                continue;
+            }
+            job.priority = nearestPlayerDistanceSquared(plan);
+        }
+        jobs.sort(Comparator.comparingDouble(j -> j.priority));
+    }
+
+    private static double nearestPlayerDistanceSquared(DecayPlan plan) {
+        double best = Double.MAX_VALUE;
+        for (Player player : plan.getWorld().getPlayers()) {
+            Location l = player.getLocation();
+            double dx = l.getX() - plan.getOriginX();
+            double dy = l.getY() - plan.getOriginY();
+            double dz = l.getZ() - plan.getOriginZ();
+            best = Math.min(best, dx * dx + dy * dy + dz * dz);
+        }
+        return best;
+    }
+
+    private final class DecayJob {
+        private final DecayPlan plan;
+        private final Runnable onDone;
+        private final BlockView view;
+        private final LogDistance distances;
+        private final DropPile drops;
+        private double priority;
+        private int cursor = 0;
+
+        private DecayJob(DecayPlan plan, Runnable onDone, DropPile drops) {
+            this.plan = plan;
+            this.onDone = onDone;
+            this.view = BlockView.of(plan.getWorld());
+            this.distances = logs.live(plan.getWorld());
+            this.drops = drops;
+        }
+
+        /**
+         * Break leaves until done or the deadline passes. Returns true once the job is finished.
+         */
+        private boolean apply(long deadline) {
+            World world = plan.getWorld();
+            long[] positions = plan.getPositions();
+            while (cursor < positions.length) {
+                long pos = positions[cursor++];
+                int x = BlockKeys.x(pos);
+                int y = BlockKeys.y(pos);
+                int z = BlockKeys.z(pos);
+                // the plan was made from snapshots; only break what is still a loose, natural leaf
+                Block b = world.isChunkLoaded(x >> 4, z >> 4) && LeafSupport.isDecayable(view, distances, x, y, z)
+                        ? world.getBlockAt(x, y, z) : null;
+                if (b != null && !playerPlaced.isPlaced(b)) {
+                    if (drops == null) {
+                        b.breakNaturally();
+                    } else {
+                        drops.add(x, y, z, b.getDrops());
+                        b.setType(Material.AIR);
+                    }
+                    playerPlaced.clear(b);
+                    metrics.leafBroken();
+                } else {
+                    metrics.leafSkipped();
+                }
+                if ((cursor & 15) == 0 && System.nanoTime() >= deadline) {
+                    return cursor >= positions.length;
+                }
+            }
+            return true;
+        }
+
+        private void finish() {
+            if (drops != null) drops.spawn(plan.getWorld());
+            onDone.run();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the drops of a decaying tree so they can be spawned as a few full stacks instead of one
+ * item entity per leaf.
+ *
+ * Drops are merged with ItemStack#isSimilar, so items that differ in meta stay apart. The pile is
+ * spawned under the middle of the broken leaves at the height of the lowest one, which for a normal
+ * tree is next to the trunk. Main thread only.
+ */
+final class DropPile {
+
+    private final List<ItemStack> items = new ArrayList<>();
+    private long sumX = 0L;
+    private long sumZ = 0L;
+    private int count = 0;
+    private int minY = Integer.MAX_VALUE;
+    private int lastX;
+    private int lastY;
+    private int lastZ;
+
+    void add(int x, int y, int z, Iterable<ItemStack> drops) {
+        sumX += x;
+        sumZ += z;
+        count++;
+        minY = Math.min(minY, y);
+        lastX = x;
+        lastY = y;
+        lastZ = z;
+        for (ItemStack drop : drops) {
+            if (drop == null || drop.getAmount() <= 0) continue;
+            merge(drop);
+        }
+    }
+
+    private void merge(ItemStack drop) {
+        for (ItemStack item : items) {
+            if (item.isSimilar(drop)) {
+                item.setAmount(item.getAmount() + drop.getAmount());
+                return;
+            }
+        }
+        items.add(drop.clone());
+    }
+
+    /**
+     * Spawn everything collected so far, split into stacks no larger than the item allows.
+     */
+    void spawn(World world) {
+        if (count == 0 || items.isEmpty()) return;
+        int x = (int) Math.floorDiv(sumX, count);
+        int z = (int) Math.floorDiv(sumZ, count);
+        int y = minY;
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            // the middle of the tree is in an unloaded chunk; the last leaf broken was loaded
+            x = lastX;
+            y = lastY;
+            z = lastZ;
+        }
+        Location at = new Location(world, x + 0.5, y + 0.5, z + 0.5);
+        for (ItemStack item : items) {
+            int left = item.getAmount();
+            int max = Math.max(1, item.getMaxStackSize());
+            while (left > 0) {
+                ItemStack stack = item.clone();
+                stack.setAmount(Math.min(left, max));
+                left -= stack.getAmount();
+                world.dropItemNaturally(at, stack);
+            }
+        }
+        items.clear();
+        sumX = 0L;
+        sumZ = 0L;
+        count = 0;
+        minY = Integer.MAX_VALUE;
+    }
+}
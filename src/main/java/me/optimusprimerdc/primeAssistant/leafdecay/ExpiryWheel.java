@@ -0,0 +1,71 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timing wheel for records that all live for the same fixed number of steps.
+ *
+ * Each slot is a growable array of (chunkKey, blockKey) pairs. Adding appends to the current slot and
+ * every advance moves to the next slot and hands its entries to the callback, so an entry comes due
+ * exactly one lap after it was added. Because every entry has the same lifetime there are no rounds to
+ * count: both operations are O(1) amortised per entry and nothing ever scans the whole wheel.
+ * Main thread only.
+ */
+final class ExpiryWheel {
+
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+    private static final int TRIM_SLOT_CAPACITY = 4096;
+
+    private final long[][] slots;
+    private final int[] sizes;
+    private int cursor = 0;
+    private int size = 0;
+
+    ExpiryWheel(int steps) {
+        int n = Math.max(1, steps);
+        this.slots = new long[n][];
+        this.sizes = new int[n];
+    }
+
+    void add(long chunkKey, long blockKey) {
+        long[] slot = slots[cursor];
+        int used = sizes[cursor];
+        if (slot == null) {
+            slot = new long[INITIAL_SLOT_CAPACITY];
+            slots[cursor] = slot;
+        } else if (used + 2 > slot.length) {
+            slot = Arrays.copyOf(slot, slot.length << 1);
+            slots[cursor] = slot;
+        }
+        slot[used] = chunkKey;
+        slot[used + 1] = blockKey;
+        sizes[cursor] = used + 2;
+        size++;
+    }
+
+    /**
+     * Step to the next slot and expire everything in it.
+     */
+    void advance(Expired expired) {
+        cursor = cursor + 1 == slots.length ? 0 : cursor + 1;
+        long[] slot = slots[cursor];
+        int used = sizes[cursor];
+        if (used == 0) return;
+        for (int i = 0; i < used; i += 2) {
+            expired.expire(slot[i], slot[i + 1]);
+        }
+        sizes[cursor] = 0;
+        size -= used >> 1;
+        // a burst of placements should not pin a large array for the lifetime of the wheel
+        if (slot.length > TRIM_SLOT_CAPACITY) slots[cursor] = null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @FunctionalInterface
+    interface Expired {
+        void expire(long chunkKey, long blockKey);
+    }
+}
@@ -0,0 +1,94 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.util.FloodFill;
+import org.bukkit.Tag;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+
+/**
+ * Decides whether a leaf is cut off from its tree using the distance vanilla already tracks in the
+ * leaf's block data, instead of scanning a cube of blocks for logs.
+ *
+ * A leaf at distance 7 that is not persistent is decaying in vanilla too. A lower distance is
+ * normally correct, but right after a trunk is cut the update wave (one block per tick) may not
+ * have reached it yet, so the value is confirmed by following strictly decreasing distances down
+ * to a real log. That walk is bounded; if it runs out of probes the leaf is treated as supported.
+ * When a LogDistance is available, its straight-line distance settles the clear cases first.
+ */
+public final class LeafSupport {
+
+    public static final int DECAY_DISTANCE = 7;
+    private static final int MAX_PROBES = 64;
+    private static final int[] FACES = FloodFill.FACES;
+
+    private LeafSupport() {
+    }
+
+    /**
+     * True if the block is a non-persistent leaf with no log within reach.
+     */
+    public static boolean isDecayable(BlockView view, int x, int y, int z) {
+        return isDecayable(view, null, x, y, z);
+    }
+
+    /**
+     * As above, consulting the log distances first; logs may be null.
+     */
+    public static boolean isDecayable(BlockView view, LogDistance logs, int x, int y, int z) {
+        BlockData data = view.get(x, y, z);
+        if (!(data instanceof Leaves)) return false;
+        Leaves leaves = (Leaves) data;
+        if (leaves.isPersistent()) return false;
+        int near = logs == null ? LogDistance.UNKNOWN : logs.distance(x, y, z);
+        // a path through leaves is never shorter than the straight distance
+        if (near >= DECAY_DISTANCE) return true;
+        if (near == 1) return false;
+        if (hasAdjacentLog(view, x, y, z)) return false;
+        int distance = leaves.getDistance();
+        return distance >= DECAY_DISTANCE || !confirmSupport(view, x, y, z, distance);
+    }
+
+    private static boolean hasAdjacentLog(BlockView view, int x, int y, int z) {
+        for (int f = 0; f < FACES.length; f += 3) {
+            BlockData n = view.get(x + FACES[f], y + FACES[f + 1], z + FACES[f + 2]);
+            // unknown neighbours count as logs: never break what cannot be checked
+            if (n == null || Tag.LOGS.isTagged(n.getMaterial())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Depth-first walk along face neighbours with strictly smaller stored distance, looking for a leaf
+     * that actually touches a log. Distances strictly decrease, so the walk is at most 6 deep.
+     */
+    private static boolean confirmSupport(BlockView view, int x, int y, int z, int distance) {
+        int[] stack = new int[MAX_PROBES * 4];
+        int top = 0;
+        int probes = 0;
+        stack[top++] = x;
+        stack[top++] = y;
+        stack[top++] = z;
+        stack[top++] = distance;
+        while (top > 0) {
+            int d = stack[--top];
+            int cz = stack[--top];
+            int cy = stack[--top];
+            int cx = stack[--top];
+            for (int f = 0; f < FACES.length; f += 3) {
+                int nx = cx + FACES[f];
+                int ny = cy + FACES[f + 1];
+                int nz = cz + FACES[f + 2];
+                BlockData n = view.get(nx, ny, nz);
+                if (++probes > MAX_PROBES || n == null) return true;
+                if (Tag.LOGS.isTagged(n.getMaterial())) return true;
+                if (n instanceof Leaves && ((Leaves) n).getDistance() < d && top + 4 <= stack.length) {
+                    stack[top++] = nx;
+                    stack[top++] = ny;
+                    stack[top++] = nz;
+                    stack[top++] = ((Leaves) n).getDistance();
+                }
+            }
+        }
+        return false;
+    }
+}
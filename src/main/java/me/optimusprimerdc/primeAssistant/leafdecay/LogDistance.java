@@ -0,0 +1,16 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+/**
+ * Distance from a position to the nearest log, counted in face steps through any blocks.
+ */
+@FunctionalInterface
+public interface LogDistance {
+
+    /** Returned when nothing is known about the position. */
+    int UNKNOWN = -1;
+
+    /**
+     * Manhattan distance to the nearest log, capped at LeafSupport.DECAY_DISTANCE, or UNKNOWN.
+     */
+    int distance(int x, int y, int z);
+}
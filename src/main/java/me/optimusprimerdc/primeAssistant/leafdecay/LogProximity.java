@@ -0,0 +1,376 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.LongObjectMap;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+
+/**
+ * Per-section cache of how far every block is from the nearest log.
+ *
+ * A section's field holds one byte per block: the Manhattan distance to the nearest LOGS-tagged
+ * block, capped at 7. Vanilla leaf distance is counted through leaves only, so it is never shorter
+ * than that; a field value of 7 proves a leaf is cut off and a value of 1 proves it is held, which
+ * settles most leaves of a forest with one array read instead of probing its neighbourhood.
+ *
+ * Fields are built off-thread from the planner's chunk snapshots (the section plus a 6-block margin,
+ * then a separable L1 distance transform) and published on the main thread only if none of the logs
+ * within reach changed since the snapshots were taken. Placing, breaking, burning, growing, pushing
+ * or blowing up a log drops the fields it could affect, and fields expire after a minute in case the
+ * world was edited without events. A field is only built when its whole margin was captured: chunks on
+ * the edge of a capture, or sections with any block the view cannot see, get no field and read as
+ * UNKNOWN, so a field never guesses about blocks it did not look at. The cache itself is main thread
+ * only; a Capture may be used from one other thread.
+ */
+public class LogProximity implements Listener {
+
+    private static final int CAP = LeafSupport.DECAY_DISTANCE;
+    private static final int MARGIN = CAP - 1;
+    private static final int REGION = 16 + 2 * MARGIN;
+    private static final long TTL_NANOS = 60_000_000_000L;
+    // marks a section whose margin could not be read, so it is not rebuilt on every lookup
+    private static final byte[] INCOMPLETE = new byte[0];
+
+    private final Plugin plugin;
+    private final LongObjectMap<ChunkFields> chunks = new LongObjectMap<>(256);
+
+    public LogProximity(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void register() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Cached distances for a live world, UNKNOWN where no fresh field exists. Main thread only.
+     */
+    public LogDistance live(World world) {
+        int worldIndex = ChunkKeys.worldIndex(world);
+        int minY = world.getMinHeight();
+        return (x, y, z) -> {
+            ChunkFields c = chunks.get(ChunkKeys.pack(worldIndex, x >> 4, z >> 4));
+            byte[] field = c == null ? null : c.fresh((y - minY) >> 4, System.nanoTime());
+            return field == null ? LogDistance.UNKNOWN : field[index(x, y, z)];
+        };
+    }
+
+    /**
+     * Take the cached fields for a square of chunks, to be read (and completed from the view) off the
+     * main thread. Hand the capture back to publish() on the main thread afterwards.
+     */
+    public Capture capture(World world, int minChunkX, int minChunkZ, int width, BlockView view) {
+        int worldIndex = ChunkKeys.worldIndex(world);
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        long now = System.nanoTime();
+        int[] versions = new int[width * width];
+        byte[][][] fields = new byte[width * width][][];
+        for (int dz = 0; dz < width; dz++) {
+            for (int dx = 0; dx < width; dx++) {
+                int i = dz * width + dx;
+                int cx = minChunkX + dx;
+                int cz = minChunkZ + dz;
+                if (!world.isChunkLoaded(cx, cz)) continue;
+                long key = ChunkKeys.pack(worldIndex, cx, cz);
+                ChunkFields c = chunks.get(key);
+                if (c == null) {
+                    c = new ChunkFields(minY, maxY);
+                    chunks.put(key, c);
+                }
+                versions[i] = c.version;
+                fields[i] = c.copyFresh(now);
+            }
+        }
+        return new Capture(worldIndex, minChunkX, minChunkZ, width, minY, maxY, now, versions, fields, view);
+    }
+
+    /**
+     * Store the fields a capture built, unless a log near them changed in the meantime.
+     */
+    public void publish(Capture capture) {
+        for (int i = 0; i < capture.built.length; i++) {
+            byte[][] built = capture.built[i];
+            if (built == null) continue;
+            long key = ChunkKeys.pack(capture.worldIndex, capture.minChunkX + i % capture.width, capture.minChunkZ + i / capture.width);
+            ChunkFields c = chunks.get(key);
+            if (c == null || c.version != capture.versions[i]) continue;
+            for (int s = 0; s < built.length; s++) {
+                if (built[s] == null) continue;
+                c.fields[s] = built[s];
+                c.builtAt[s] = capture.takenAt;
+            }
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private void invalidate(World world, int x, int y, int z) {
+        int worldIndex = ChunkKeys.worldIndex(world);
+        int minY = world.getMinHeight();
+        for (int cx = (x - MARGIN) >> 4; cx <= (x + MARGIN) >> 4; cx++) {
+            for (int cz = (z - MARGIN) >> 4; cz <= (z + MARGIN) >> 4; cz++) {
+                ChunkFields c = chunks.get(ChunkKeys.pack(worldIndex, cx, cz));
+                if (c == null) continue;
+                c.version++;
+                int from = Math.max(0, (y - MARGIN - minY) >> 4);
+                int to = Math.min(c.fields.length - 1, (y + MARGIN - minY) >> 4);
+                for (int s = from; s <= to; s++) {
+                    c.fields[s] = null;
+                }
+            }
+        }
+    }
+
+    private void invalidate(Block block) {
+        invalidate(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    private void invalidateIfLog(Block block) {
+        if (Tag.LOGS.isTagged(block.getType())) invalidate(block);
+    }
+
+    private void invalidateIfLog(List<Block> blocks) {
+        for (Block block : blocks) {
+            invalidateIfLog(block);
+        }
+    }
+
+    /**
+     * A pushed or pulled log leaves one spot and lands next to it; cover both sides since the
+     * reported direction differs between extend and retract.
+     */
+    private void invalidateMoved(List<Block> blocks, BlockFace direction) {
+        for (Block block : blocks) {
+            if (!Tag.LOGS.isTagged(block.getType())) continue;
+            invalidate(block);
+            invalidate(block.getRelative(direction));
+            invalidate(block.getRelative(direction.getOppositeFace()));
+        }
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        chunks.remove(ChunkKeys.of(event.getChunk()));
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        int world = ChunkKeys.worldIndex(event.getWorld());
+        chunks.removeIf((chunkKey, c) -> ChunkKeys.worldIndex(chunkKey) == world);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        if (Tag.LOGS.isTagged(event.getBlockPlaced().getType()) || Tag.LOGS.isTagged(event.getBlockReplacedState().getType())) {
+            invalidate(event.getBlockPlaced());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        invalidateIfLog(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent event) {
+        invalidateIfLog(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateIfLog(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateIfLog(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGrow(StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            if (Tag.LOGS.isTagged(state.getType())) invalidate(state.getWorld(), state.getX(), state.getY(), state.getZ());
+        }
+    }
+
+    /**
+     * Fields for a square of chunks as they were when the planner took its snapshots. Missing fields
+     * of the inner chunks are built on demand from the snapshot view and remembered for publish();
+     * the outer ring only supplies margin, since its own margin lies outside the capture.
+     */
+    public static final class Capture implements LogDistance {
+        private final int worldIndex;
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final int width;
+        private final int minY;
+        private final int maxY;
+        private final long takenAt;
+        private final int[] versions;
+        private final byte[][][] fields;
+        private final byte[][][] built;
+        private final BlockView view;
+        private byte[] region;
+
+        private Capture(int worldIndex, int minChunkX, int minChunkZ, int width, int minY, int maxY, long takenAt,
+                        int[] versions, byte[][][] fields, BlockView view) {
+            this.worldIndex = worldIndex;
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.width = width;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.takenAt = takenAt;
+            this.versions = versions;
+            this.fields = fields;
+            this.built = new byte[fields.length][][];
+            this.view = view;
+        }
+
+        @Override
+        public int distance(int x, int y, int z) {
+            if (y < minY || y >= maxY) return UNKNOWN;
+            int cx = (x >> 4) - minChunkX;
+            int cz = (z >> 4) - minChunkZ;
+            if (cx < 0 || cz < 0 || cx >= width || cz >= width) return UNKNOWN;
+            int i = cz * width + cx;
+            if (fields[i] == null) return UNKNOWN;
+            int s = (y - minY) >> 4;
+            byte[] field = fields[i][s];
+            if (field == null) {
+                boolean edge = cx == 0 || cz == 0 || cx == width - 1 || cz == width - 1;
+                field = edge ? null : build(x & ~15, minY + (s << 4), z & ~15);
+                if (field == null) {
+                    fields[i][s] = INCOMPLETE;
+                    return UNKNOWN;
+                }
+                fields[i][s] = field;
+                if (built[i] == null) built[i] = new byte[fields[i].length][];
+                built[i][s] = field;
+            }
+            return field == INCOMPLETE ? UNKNOWN : field[index(x, y, z)];
+        }
+
+        /**
+         * Distance field for one section, or null if a block within its margin could not be read.
+         */
+        private byte[] build(int originX, int originY, int originZ) {
+            if (region == null) region = new byte[REGION * REGION * REGION];
+            byte[] g = region;
+            int n = 0;
+            for (int dy = 0; dy < REGION; dy++) {
+                int y = originY - MARGIN + dy;
+                for (int dz = 0; dz < REGION; dz++) {
+                    int z = originZ - MARGIN + dz;
+                    for (int dx = 0; dx < REGION; dx++) {
+                        byte v = CAP;
+                        if (y >= minY && y < maxY) {
+                            BlockData b = view.get(originX - MARGIN + dx, y, z);
+                            if (b == null) return null;
+                            if (Tag.LOGS.isTagged(b.getMaterial())) v = 0;
+                        }
+                        g[n++] = v;
+                    }
+                }
+            }
+
+            // L1 distance is separable: relax every line along x, then along z, then along y
+            for (int a = 0; a < REGION; a++) {
+                for (int b = 0; b < REGION; b++) {
+                    relax(g, (a * REGION + b) * REGION, 1);
+                }
+            }
+            for (int a = 0; a < REGION; a++) {
+                for (int b = 0; b < REGION; b++) {
+                    relax(g, a * REGION * REGION + b, REGION);
+                }
+            }
+            for (int a = 0; a < REGION; a++) {
+                for (int b = 0; b < REGION; b++) {
+                    relax(g, a * REGION + b, REGION * REGION);
+                }
+            }
+
+            byte[] field = new byte[4096];
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    int row = ((y + MARGIN) * REGION + z + MARGIN) * REGION + MARGIN;
+                    System.arraycopy(g, row, field, (y << 8) | (z << 4), 16);
+                }
+            }
+            return field;
+        }
+
+        private static void relax(byte[] g, int base, int stride) {
+            int prev = g[base];
+            for (int i = 1, p = base + stride; i < REGION; i++, p += stride) {
+                if (g[p] > prev + 1) g[p] = (byte) (prev + 1);
+                prev = g[p];
+            }
+            prev = g[base + (REGION - 1) * stride];
+            for (int i = REGION - 2, p = base + i * stride; i >= 0; i--, p -= stride) {
+                if (g[p] > prev + 1) g[p] = (byte) (prev + 1);
+                prev = g[p];
+            }
+        }
+    }
+
+    private static final class ChunkFields {
+        private final byte[][] fields;
+        private final long[] builtAt;
+        private int version;
+
+        private ChunkFields(int minY, int maxY) {
+            int sections = Math.max(1, (maxY - minY + 15) >> 4);
+            this.fields = new byte[sections][];
+            this.builtAt = new long[sections];
+        }
+
+        private byte[] fresh(int section, long now) {
+            if (section < 0 || section >= fields.length) return null;
+            byte[] field = fields[section];
+            return field != null && now - builtAt[section] < TTL_NANOS ? field : null;
+        }
+
+        private byte[][] copyFresh(long now) {
+            byte[][] copy = new byte[fields.length][];
+            for (int s = 0; s < copy.length; s++) {
+                copy[s] = fresh(s, now);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import me.optimusprimerdc.primeAssistant.util.BlockKeys;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.LongObjectMap;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Persistent record of player-placed leaves, one 4096-bit set per 16x16x16 chunk section.
+ *
+ * Bits are kept in memory for loaded chunks and stored in the chunk's PersistentDataContainer as a
+ * single long array: version, minY, then for every non-empty section its index followed by 64 words.
+ * A bit is addressed by (y & 15) << 8 | (z & 15) << 4 | (x & 15), so a lookup is a map probe, an array
+ * index and a bit test. Main thread only.
+ */
+public class PlacedLeaves implements Listener {
+
+    private static final long FORMAT_VERSION = 1L;
+    private static final int WORDS = 64;
+
+    private final Plugin plugin;
+    private final NamespacedKey key;
+    private final LongObjectMap<ChunkBits> chunks = new LongObjectMap<>(256);
+    private ExpiryWheel expiry;
+    private BukkitTask expiryTask;
+
+    public PlacedLeaves(Plugin plugin) {
+        this.plugin = plugin;
+        this.key = new NamespacedKey(plugin, "placed_leaves");
+    }
+
+    /**
+     * Register the listener and pick up chunks that were already loaded before the plugin enabled.
+     */
+    public void register() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                load(chunk);
+            }
+        }
+    }
+
+    /**
+     * Forget placements after the given number of seconds, or keep them forever when 0. Expiry is
+     * driven by a timing wheel stepped once a second and only covers placements seen from now on:
+     * records read back from chunks never expire, a record whose chunk is unloaded when it comes due is
+     * kept, and a leaf broken and placed again within the window expires with its first placement.
+     */
+    public void setExpirySeconds(int seconds) {
+        if (expiryTask != null) {
+            expiryTask.cancel();
+            expiryTask = null;
+        }
+        expiry = null;
+        if (seconds <= 0) return;
+        ExpiryWheel wheel = new ExpiryWheel(seconds);
+        expiry = wheel;
+        expiryTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> wheel.advance(this::expire), 20L, 20L);
+    }
+
+    public boolean isPlaced(Block block) {
+        return isPlaced(ChunkKeys.of(block), block.getX(), block.getY(), block.getZ());
+    }
+
+    public boolean isPlaced(long chunkKey, int x, int y, int z) {
+        ChunkBits c = chunks.get(chunkKey);
+        if (c == null) return false;
+        long[] bits = c.section(y);
+        if (bits == null) return false;
+        int bit = bitIndex(x, y, z);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Immutable copy of the chunk's records for use off the main thread, or null if it has none.
+     */
+    public Snapshot snapshot(long chunkKey) {
+        ChunkBits c = chunks.get(chunkKey);
+        if (c == null) return null;
+        long[][] copy = new long[c.sections.length][];
+        for (int s = 0; s < copy.length; s++) {
+            if (c.sections[s] != null) copy[s] = c.sections[s].clone();
+        }
+        return new Snapshot(c.minY, copy);
+    }
+
+    public void mark(Block block) {
+        long chunkKey = ChunkKeys.of(block);
+        ChunkBits c = chunks.get(chunkKey);
+        if (c == null) {
+            c = new ChunkBits(block.getWorld().getMinHeight(), block.getWorld().getMaxHeight());
+            chunks.put(chunkKey, c);
+        }
+        long[] bits = c.sectionForWrite(block.getY());
+        if (bits == null) return;
+        int bit = bitIndex(block.getX(), block.getY(), block.getZ());
+        bits[bit >>> 6] |= 1L << bit;
+        c.dirty = true;
+    }
+
+    public void clear(Block block) {
+        clear(ChunkKeys.of(block), block.getX(), block.getY(), block.getZ());
+    }
+
+    public void clear(long chunkKey, int x, int y, int z) {
+        ChunkBits c = chunks.get(chunkKey);
+        if (c == null) return;
+        long[] bits = c.section(y);
+        if (bits == null) return;
+        int bit = bitIndex(x, y, z);
+        long mask = 1L << bit;
+        if ((bits[bit >>> 6] & mask) == 0) return;
+        bits[bit >>> 6] &= ~mask;
+        c.dirty = true;
+    }
+
+    /**
+     * Write every dirty chunk back to its PersistentDataContainer (used on disable).
+     */
+    public void saveAll() {
+        chunks.forEach(this::writeIfLoaded);
+    }
+
+    private void expire(long chunkKey, long blockKey) {
+        clear(chunkKey, BlockKeys.x(blockKey), BlockKeys.y(blockKey), BlockKeys.z(blockKey));
+    }
+
+    private static int bitIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private void load(Chunk chunk) {
+        long chunkKey = ChunkKeys.of(chunk);
+        if (chunks.containsKey(chunkKey)) return;
+        ChunkBits stored = read(chunk);
+        if (stored != null) chunks.put(chunkKey, stored);
+    }
+
+    private ChunkBits read(Chunk chunk) {
+        long[] stored = chunk.getPersistentDataContainer().get(key, PersistentDataType.LONG_ARRAY);
+        World world = chunk.getWorld();
+        if (stored == null || stored.length < 2 || stored[0] != FORMAT_VERSION || stored[1] != world.getMinHeight()) {
+            return null;
+        }
+        ChunkBits c = new ChunkBits(world.getMinHeight(), world.getMaxHeight());
+        for (int i = 2; i + WORDS < stored.length; i += WORDS + 1) {
+            int section = (int) stored[i];
+            if (section < 0 || section >= c.sections.length) continue;
+            long[] bits = new long[WORDS];
+            System.arraycopy(stored, i + 1, bits, 0, WORDS);
+            c.sections[section] = bits;
+        }
+        return c;
+    }
+
+    private void write(Chunk chunk, ChunkBits c) {
+        int used = 0;
+        for (long[] bits : c.sections) {
+            if (bits != null && !isEmpty(bits)) used++;
+        }
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        c.dirty = false;
+        if (used == 0) {
+            pdc.remove(key);
+            return;
+        }
+        long[] out = new long[2 + used * (WORDS + 1)];
+        out[0] = FORMAT_VERSION;
+        out[1] = c.minY;
+        int pos = 2;
+        for (int s = 0; s < c.sections.length; s++) {
+            long[] bits = c.sections[s];
+            if (bits == null || isEmpty(bits)) continue;
+            out[pos++] = s;
+            System.arraycopy(bits, 0, out, pos, WORDS);
+            pos += WORDS;
+        }
+        pdc.set(key, PersistentDataType.LONG_ARRAY, out);
+    }
+
+    private void writeIfLoaded(long chunkKey, ChunkBits c) {
+        if (!c.dirty) return;
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        if (world != null && world.isChunkLoaded(cx, cz)) {
+            write(world.getChunkAt(cx, cz), c);
+        }
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long w : bits) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (!event.isNewChunk()) load(event.getChunk());
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        ChunkBits c = chunks.remove(ChunkKeys.of(event.getChunk()));
+        if (c != null && c.dirty) write(event.getChunk(), c);
+    }
+
+    @EventHandler
+    public void onWorldSave(WorldSaveEvent event) {
+        int world = ChunkKeys.worldIndex(event.getWorld());
+        chunks.forEach((chunkKey, c) -> {
+            if (ChunkKeys.worldIndex(chunkKey) == world) writeIfLoaded(chunkKey, c);
+        });
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        int world = ChunkKeys.worldIndex(event.getWorld());
+        chunks.removeIf((chunkKey, c) -> ChunkKeys.worldIndex(chunkKey) == world);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        if (!Tag.LEAVES.isTagged(block.getType())) return;
+        mark(block);
+        if (expiry != null) expiry.add(ChunkKeys.of(block), BlockKeys.pack(block.getX(), block.getY(), block.getZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        if (Tag.LEAVES.isTagged(event.getBlock().getType())) clear(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDecay(LeavesDecayEvent event) {
+        clear(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            if (Tag.LEAVES.isTagged(block.getType())) clear(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            if (Tag.LEAVES.isTagged(block.getType())) clear(block);
+        }
+    }
+
+    public static final class Snapshot {
+        private final int minY;
+        private final long[][] sections;
+
+        private Snapshot(int minY, long[][] sections) {
+            this.minY = minY;
+            this.sections = sections;
+        }
+
+        public boolean isPlaced(int x, int y, int z) {
+            int s = (y - minY) >> 4;
+            if (s < 0 || s >= sections.length || sections[s] == null) return false;
+            int bit = bitIndex(x, y, z);
+            return (sections[s][bit >>> 6] & (1L << bit)) != 0;
+        }
+    }
+
+    private static final class ChunkBits {
+        private final int minY;
+        private final long[][] sections;
+        private boolean dirty;
+
+        private ChunkBits(int minY, int maxY) {
+            this.minY = minY;
+            this.sections = new long[Math.max(1, (maxY - minY + 15) >> 4)][];
+        }
+
+        private long[] section(int y) {
+            int s = (y - minY) >> 4;
+            return s >= 0 && s < sections.length ? sections[s] : null;
+        }
+
+        private long[] sectionForWrite(int y) {
+            int s = (y - minY) >> 4;
+            if (s < 0 || s >= sections.length) return null;
+            if (sections[s] == null) sections[s] = new long[WORDS];
+            return sections[s];
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package me.optimusprimerdc.primeAssistant.leafdecay;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * BlockView over a square of chunk snapshots (plus the matching placed-leaf records), safe to read
+ * from any thread. Positions outside the captured chunks or the world height read as null.
+ */
+public final class SnapshotView implements BlockView {
+
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int minY;
+    private final int maxY;
+    private final ChunkSnapshot[] chunks;
+    private final PlacedLeaves.Snapshot[] placed;
+
+    /**
+     * @param chunks  row-major by z then x, width * width entries, null where a chunk was not loaded
+     * @param placed  same layout, null where a chunk has no placed leaves
+     */
+    public SnapshotView(int minChunkX, int minChunkZ, int width, int minY, int maxY,
+                        ChunkSnapshot[] chunks, PlacedLeaves.Snapshot[] placed) {
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.width = width;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.chunks = chunks;
+        this.placed = placed;
+    }
+
+    @Override
+    public BlockData get(int x, int y, int z) {
+        if (y < minY || y >= maxY) return null;
+        int i = index(x, z);
+        ChunkSnapshot snapshot = i < 0 ? null : chunks[i];
+        return snapshot == null ? null : snapshot.getBlockData(x & 15, y, z & 15);
+    }
+
+    public boolean isPlaced(int x, int y, int z) {
+        int i = index(x, z);
+        return i >= 0 && placed[i] != null && placed[i].isPlaced(x, y, z);
+    }
+
+    private int index(int x, int z) {
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= width || cz >= width) return -1;
+        return cz * width + cx;
+    }
+}
@@ -1,31 +1,91 @@
 package me.optimusprimerdc.primeAssistant.listener;
 
 import me.optimusprimerdc.primeAssistant.PrimeAssistant;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayMetrics;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayMetricsLog;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayPlanner;
+import me.optimusprimerdc.primeAssistant.leafdecay.DecayScheduler;
+import me.optimusprimerdc.primeAssistant.leafdecay.LogProximity;
+import me.optimusprimerdc.primeAssistant.leafdecay.PlacedLeaves;
 import org.bukkit.Location;
-import org.bukkit.Tag;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.LeavesDecayEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class FastLeafDecay implements Listener {
 
+    private static final int MAX_TREE_LEAVES = 2000;
+
     private final PrimeAssistant plugin;
-    private final Map<String, Long> playerPlaced = new ConcurrentHashMap<>();
+    private final PlacedLeaves playerPlaced;
+    private final LogProximity logs;
+    private final DecayMetrics metrics = new DecayMetrics();
+    private final DecayPlanner planner;
+    private final DecayScheduler scheduler;
+    private final DecayMetricsLog metricsLog;
     private final Set<String> processingTrees = ConcurrentHashMap.newKeySet();
+    private int placedExpireMinutes;
 
     public FastLeafDecay(PrimeAssistant plugin) {
         this.plugin = plugin;
+        this.playerPlaced = new PlacedLeaves(plugin);
+        this.playerPlaced.register();
+        this.placedExpireMinutes = plugin.getConfigManager().getLeafDecayPlacedExpireMinutes();
+        this.playerPlaced.setExpirySeconds(placedExpireMinutes * 60);
+        this.logs = new LogProximity(plugin);
+        this.logs.register();
+        this.planner = new DecayPlanner(plugin, playerPlaced, logs, metrics);
+        this.scheduler = new DecayScheduler(plugin, playerPlaced, logs, metrics,
+                plugin.getConfigManager().getLeafDecayTickBudgetMillis(),
+                plugin.getConfigManager().isLeafDecayAggregateDrops());
+        this.metricsLog = new DecayMetricsLog(plugin, metrics, scheduler, this::getPlanningCount, plugin.getTickMonitor());
+        this.metricsLog.start(plugin.getConfigManager().getLeafDecayMetricsIntervalSeconds(),
+                plugin.getConfigManager().getLeafDecayMetricsMaxFileKb() * 1024L);
     }
 
-    private String key(Block b) {
-        Location l = b.getLocation();
-        return Objects.requireNonNull(l.getWorld()).getUID() + ":" + l.getBlockX() + ":" + l.getBlockY() + ":" + l.getBlockZ();
+    /**
+     * Apply changed fast-leaf-decay settings. Decay already in progress continues under the new budget.
+     */
+    public void reload() {
+        scheduler.setTickBudgetMillis(plugin.getConfigManager().getLeafDecayTickBudgetMillis());
+        scheduler.setAggregateDrops(plugin.getConfigManager().isLeafDecayAggregateDrops());
+        int expireMinutes = plugin.getConfigManager().getLeafDecayPlacedExpireMinutes();
+        // a new expiry wheel forgets the pending placements, so only rebuild it when the setting changed
+        if (expireMinutes != placedExpireMinutes) {
+            placedExpireMinutes = expireMinutes;
+            playerPlaced.setExpirySeconds(expireMinutes * 60);
+        }
+        metricsLog.start(plugin.getConfigManager().getLeafDecayMetricsIntervalSeconds(),
+                plugin.getConfigManager().getLeafDecayMetricsMaxFileKb() * 1024L);
+    }
+
+    /**
+     * Stop breaking leaves and flush placement records before the plugin goes away.
+     */
+    public void shutdown() {
+        metricsLog.close();
+        scheduler.stop();
+        playerPlaced.saveAll();
+    }
+
+    public DecayMetrics getMetrics() {
+        return metrics;
+    }
+
+    public DecayScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Trees whose plan is still being worked out off-thread.
+     */
+    public int getPlanningCount() {
+        return Math.max(0, processingTrees.size() - scheduler.pendingTrees());
     }
 
     private String treeKey(Block b) {
@@ -34,24 +94,11 @@ public class FastLeafDecay implements Listener {
                 (l.getBlockX() >> 4) + ":" + (l.getBlockY() >> 4) + ":" + (l.getBlockZ() >> 4);
     }
 
-    @EventHandler
-    public void onLeafPlace(BlockPlaceEvent e) {
-        if (Tag.LEAVES.isTagged(e.getBlock().getType())) {
-            playerPlaced.put(key(e.getBlock()), System.currentTimeMillis());
-        }
-    }
-
     @EventHandler
     public void onLeafDecay(LeavesDecayEvent e) {
         Block leaf = e.getBlock();
-        String leafKey = key(leaf);
 
-        if (Math.random() < 0.01) {
-            long now = System.currentTimeMillis();
-            playerPlaced.entrySet().removeIf(entry -> now - entry.getValue() > 300000);
-        }
-
-        if (playerPlaced.containsKey(leafKey)) {
+        if (playerPlaced.isPlaced(leaf)) {
             return;
         }
 
@@ -62,88 +109,8 @@ public class FastLeafDecay implements Listener {
             return;
         }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Set<Block> leavesToBreak = new HashSet<>();
-                    Queue<Block> toCheck = new LinkedList<>();
-                    Set<String> checked = new HashSet<>();
-
-                    toCheck.add(leaf);
-
-                    while (!toCheck.isEmpty() && leavesToBreak.size() < 2000) {
-                        Block current = toCheck.poll();
-                        String currentKey = key(current);
-
-                        if (!checked.add(currentKey)) continue;
-                        if (!Tag.LEAVES.isTagged(current.getType())) continue;
-                        if (playerPlaced.containsKey(currentKey)) continue;
-
-                        if (!hasLogNearby(current.getLocation())) {
-                            leavesToBreak.add(current);
-
-                            for (int x = -1; x <= 1; x++) {
-                                for (int y = -1; y <= 1; y++) {
-                                    for (int z = -1; z <= 1; z++) {
-                                        if (x == 0 && y == 0 && z == 0) continue;
-                                        Block nearby = current.getRelative(x, y, z);
-                                        if (Tag.LEAVES.isTagged(nearby.getType())) {
-                                            toCheck.add(nearby);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    if (!leavesToBreak.isEmpty()) {
-                        List<Block> leafList = new ArrayList<>(leavesToBreak);
-
-                        new BukkitRunnable() {
-                            int index = 0;
-
-                            @Override
-                            public void run() {
-                                int batch = 100;
-                                int processed = 0;
-
-                                while (index < leafList.size() && processed < batch) {
-                                    Block b = leafList.get(index++);
-                                    if (Tag.LEAVES.isTagged(b.getType())) {
-                                        b.breakNaturally();
-                                        playerPlaced.remove(key(b));
-                                    }
-                                    processed++;
-                                }
-
-                                if (index >= leafList.size()) {
-                                    cancel();
-                                    processingTrees.remove(tree);
-                                }
-                            }
-                        }.runTaskTimer(plugin, 0L, 1L);
-                    } else {
-                        processingTrees.remove(tree);
-                    }
-                } catch (Exception ex) {
-                    processingTrees.remove(tree);
-                }
-            }
-        }.runTask(plugin);
-    }
-
-    private boolean hasLogNearby(Location leafLoc) {
-        for (int x = -3; x <= 3; x++) {
-            for (int y = -3; y <= 3; y++) {
-                for (int z = -3; z <= 3; z++) {
-                    Block check = leafLoc.getBlock().getRelative(x, y, z);
-                    if (Tag.LOGS.isTagged(check.getType())) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        World world = leaf.getWorld();
+        planner.plan(world, leaf.getX(), leaf.getY(), leaf.getZ(), MAX_TREE_LEAVES,
+                plan -> scheduler.submit(plan, () -> processingTrees.remove(tree)));
     }
 }
@@ -2,142 +2,539 @@ package me.optimusprimerdc.primeAssistant.listener;
 
 import me.optimusprimerdc.primeAssistant.PrimeAssistant;
 import me.optimusprimerdc.primeAssistant.config.ConfigManager;
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.redstone.ActivityScores;
+import me.optimusprimerdc.primeAssistant.redstone.ChunkThrottle;
+import me.optimusprimerdc.primeAssistant.redstone.ClockDetector;
+import me.optimusprimerdc.primeAssistant.redstone.HopperLimiter;
+import me.optimusprimerdc.primeAssistant.redstone.RedstoneFreezer;
+import me.optimusprimerdc.primeAssistant.redstone.RedstoneIndex;
+import me.optimusprimerdc.primeAssistant.redstone.RedstoneProfiler;
+import me.optimusprimerdc.primeAssistant.redstone.RedstonePurger;
+import me.optimusprimerdc.primeAssistant.util.BlockKeys;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
 
-import java.util.*;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 public class Redstone implements Listener {
 
+    // matches the old "more than 50 events in a 5 second window" purge rule, in wire-update cost units
+    private static final double PURGE_MIN_COST_PER_SECOND = 10.0;
+    // a frozen chunk is restored once held activations fall below this; a few button presses are fine
+    private static final double THAW_MAX_HELD_PER_SECOND = 1.0;
+
     private final PrimeAssistant plugin;
     private final ConfigManager cfg;
+    private final TickMonitor tickMonitor;
     private double tpsThreshold;
     private boolean enablePurge;
+    private boolean freezeOnPurge;
+    private boolean throttleMode;
+    private int chunkUpdatesPerSecond;
+    private double minBudgetScale;
+    private double releaseTps;
+    private long minHoldTicks;
+    private int recoverySeconds;
+    private double redstoneCost;
+    private double observerCost;
+    private double pistonCost;
+    private double pistonBlockCost;
+    private double dispenserCost;
+    private double hopperCost;
+    private boolean hopperLimits;
+    private double hopperEnforceTickMillis;
+    private boolean clockDetection;
+    private boolean breakClocks;
     private boolean redstoneDisabled = false;
-    private final Map<String, Integer> chunkRedstoneEvents = new HashMap<>();
+    private boolean throttling = false;
+    private boolean recovering = false;
+    // tick at which protection last engaged (GLOBAL) or the budget last shrank (THROTTLE)
+    private long engagedAt = 0L;
+    private long lastThrottledAt = 0L;
+    private double appliedScale = 1.0;
+    private int clocksFlagged = 0;
+    private String lastClockLocation = "";
+    private final ActivityScores chunkActivity;
+    private final ActivityScores observerActivity;
+    private final ActivityScores pistonActivity;
+    private final ActivityScores dispenserActivity;
+    private final ActivityScores hopperActivity;
+    private final ActivityScores hopperDeniedActivity;
+    private final ActivityScores costActivity;
+    private final ActivityScores heldActivity;
+    private final ActivityScores[] allActivity;
+    private final ChunkThrottle chunkThrottle = new ChunkThrottle(2000);
+    private final HopperLimiter hopperLimiter = new HopperLimiter(200, 2);
     private final Set<Material> redstoneBlocks = EnumSet.of(
             Material.REDSTONE_WIRE, Material.REDSTONE_BLOCK, Material.REDSTONE_TORCH,
             Material.REDSTONE_WALL_TORCH, Material.REPEATER, Material.COMPARATOR,
             Material.OBSERVER, Material.PISTON, Material.STICKY_PISTON,
             Material.DISPENSER, Material.DROPPER, Material.HOPPER
     );
+    private final RedstoneIndex index;
+    private final RedstonePurger purger;
+    private final RedstoneFreezer freezer;
+    private final ClockDetector clockDetector;
+    private final RedstoneProfiler profiler;
 
     public Redstone(PrimeAssistant plugin) {
         this.plugin = plugin;
         this.cfg = plugin.getConfigManager();
+        this.tickMonitor = plugin.getTickMonitor();
+        this.index = new RedstoneIndex(plugin, redstoneBlocks);
+        this.index.register();
+        this.purger = new RedstonePurger(plugin, redstoneBlocks, index, cfg.getRedstonePurgeTickBudgetMillis());
+        int topK = cfg.getRedstoneActivityTopK();
+        double halfLife = cfg.getRedstoneActivityHalfLifeSeconds();
+        this.chunkActivity = new ActivityScores(topK, halfLife);
+        this.observerActivity = new ActivityScores(topK, halfLife);
+        this.pistonActivity = new ActivityScores(topK, halfLife);
+        this.dispenserActivity = new ActivityScores(topK, halfLife);
+        this.hopperActivity = new ActivityScores(topK, halfLife);
+        this.hopperDeniedActivity = new ActivityScores(topK, halfLife);
+        this.costActivity = new ActivityScores(topK, halfLife);
+        this.heldActivity = new ActivityScores(topK, halfLife);
+        this.allActivity = new ActivityScores[]{chunkActivity, observerActivity, pistonActivity, dispenserActivity,
+                hopperActivity, hopperDeniedActivity, costActivity, heldActivity};
+        this.freezer = new RedstoneFreezer(plugin, tickMonitor, index, heldActivity, placeholder(), cfg.getRedstonePurgeTickBudgetMillis());
+        this.freezer.register();
+        this.profiler = new RedstoneProfiler(plugin, tickMonitor, costActivity, columns());
+        this.clockDetector = new ClockDetector(cfg.getRedstoneClockTrackedPositions(), cfg.getRedstoneClockMaxPeriodTicks(),
+                cfg.getRedstoneClockMinDurationSeconds(), cfg.getRedstoneClockHoldSeconds());
         loadConfig();
         startTPSMonitor();
-        if (enablePurge) {
-            startChunkMonitor();
-        }
+        startChunkMonitor();
     }
 
     public void reload() {
         loadConfig();
     }
 
+    /**
+     * Flush pending state before the plugin goes away.
+     */
+    public void shutdown() {
+        profiler.stop();
+        purger.stop();
+        // put player builds back before the plugin that knows how to restore them goes away
+        freezer.thawAllNow();
+        index.saveAll();
+    }
+
+    public RedstoneIndex getIndex() {
+        return index;
+    }
+
+    /** Redstone events per second per chunk. */
+    public ActivityScores getRedstoneActivity() {
+        return chunkActivity;
+    }
+
+    /** Observer pulses per second per chunk (also counted in the redstone events). */
+    public ActivityScores getObserverActivity() {
+        return observerActivity;
+    }
+
+    /** Blocks moved by pistons per second per chunk. */
+    public ActivityScores getPistonActivity() {
+        return pistonActivity;
+    }
+
+    /** Dispenser and dropper activations per second per chunk. */
+    public ActivityScores getDispenserActivity() {
+        return dispenserActivity;
+    }
+
+    /** Item transfers initiated by hoppers per second per chunk. */
+    public ActivityScores getHopperActivity() {
+        return hopperActivity;
+    }
+
+    /** Hopper transfers per second per chunk that the hopper limiter cancelled. */
+    public ActivityScores getHopperDeniedActivity() {
+        return hopperDeniedActivity;
+    }
+
+    public HopperLimiter getHopperLimiter() {
+        return hopperLimiter;
+    }
+
+    /**
+     * Estimated cost per second per chunk: every kind of activity weighted by the configured cost,
+     * in units of one redstone wire update. This is the ranking used for purge decisions.
+     */
+    public ActivityScores getCostActivity() {
+        return costActivity;
+    }
+
+    /**
+     * Redstone, piston and dispenser activations per second held back in frozen chunks. Frozen chunks
+     * record nothing in the other tables, so this is what shows whether they have gone quiet.
+     */
+    public ActivityScores getHeldActivity() {
+        return heldActivity;
+    }
+
+    /**
+     * The per-kind tables in report order, keyed by the column name used in profiles.
+     */
+    public Map<String, ActivityScores> columns() {
+        Map<String, ActivityScores> columns = new LinkedHashMap<>();
+        columns.put("cost_per_s", costActivity);
+        columns.put("redstone_per_s", chunkActivity);
+        columns.put("observer_per_s", observerActivity);
+        columns.put("piston_blocks_per_s", pistonActivity);
+        columns.put("dispense_per_s", dispenserActivity);
+        columns.put("hopper_moves_per_s", hopperActivity);
+        columns.put("hopper_denied_per_s", hopperDeniedActivity);
+        return columns;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    public RedstoneProfiler getProfiler() {
+        return profiler;
+    }
+
+    public RedstoneFreezer getFreezer() {
+        return freezer;
+    }
+
     private void loadConfig() {
         this.tpsThreshold = cfg.getRedstoneTpsThreshold(); // expected to exist in ConfigManager
         this.enablePurge = cfg.isRedstonePurgeEnabled();
+        this.freezeOnPurge = !"REMOVE".equalsIgnoreCase(cfg.getRedstonePurgeAction().trim());
+        this.throttleMode = !"GLOBAL".equalsIgnoreCase(cfg.getRedstoneMode().trim());
+        this.chunkUpdatesPerSecond = Math.max(1, cfg.getRedstoneChunkUpdatesPerSecond());
+        this.minBudgetScale = cfg.getRedstoneMinBudgetScale();
+        // releasing below the engage point would reintroduce the flapping the gap is there to prevent
+        this.releaseTps = Math.max(tpsThreshold, cfg.getRedstoneReleaseTps());
+        this.minHoldTicks = Math.max(0, cfg.getRedstoneMinHoldSeconds()) * 20L;
+        this.recoverySeconds = Math.max(1, cfg.getRedstoneRecoverySeconds());
+        chunkThrottle.setBudget(chunkUpdatesPerSecond, appliedScale);
+        purger.setTickBudgetMillis(cfg.getRedstonePurgeTickBudgetMillis());
+        freezer.setTickBudgetMillis(cfg.getRedstonePurgeTickBudgetMillis());
+        freezer.setPlaceholder(placeholder());
+        freezer.setMinHoldTicks(minHoldTicks);
+        for (ActivityScores scores : allActivity) {
+            scores.setHalfLife(cfg.getRedstoneActivityHalfLifeSeconds());
+        }
+        this.redstoneCost = cfg.getRedstoneCost("redstone", 1.0);
+        this.observerCost = cfg.getRedstoneCost("observer", 2.0);
+        this.pistonCost = cfg.getRedstoneCost("piston", 4.0);
+        this.pistonBlockCost = cfg.getRedstoneCost("piston-per-block", 3.0);
+        this.dispenserCost = cfg.getRedstoneCost("dispenser", 3.0);
+        this.hopperCost = cfg.getRedstoneCost("hopper", 1.0);
+        this.hopperLimits = cfg.isRedstoneHopperLimitEnabled();
+        this.hopperEnforceTickMillis = cfg.getRedstoneHopperEnforceAboveTickMillis();
+        hopperLimiter.configure(cfg.getRedstoneHopperChunkTransfersPerSecond(), cfg.getRedstoneHopperTransfersPerSecond());
+        this.clockDetection = cfg.isRedstoneClockDetectorEnabled();
+        this.breakClocks = "BREAK".equalsIgnoreCase(cfg.getRedstoneClockAction().trim());
+        clockDetector.configure(cfg.getRedstoneClockMaxPeriodTicks(), cfg.getRedstoneClockMinDurationSeconds(),
+                cfg.getRedstoneClockHoldSeconds());
     }
 
     private void startTPSMonitor() {
         Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            reportClocks();
+            hopperLimiter.evictIdle(tickMonitor.getCurrentTick(), 100L);
+
+            if (throttleMode) {
+                redstoneDisabled = false;
+                recovering = false;
+                updateThrottleBudget();
+                return;
+            }
+
             double currentTPS = getCurrentTPS();
+            long tick = tickMonitor.getCurrentTick();
 
             if (currentTPS < tpsThreshold && !redstoneDisabled) {
                 redstoneDisabled = true;
+                recovering = false;
+                engagedAt = tick;
                 plugin.getLogger().warning("TPS dropped below " + tpsThreshold + " (current: " + String.format("%.2f", currentTPS) + "). Disabling Redstone.");
                 Bukkit.broadcast(ChatColor.RED + "Redstone has been temporarily disabled due to low TPS (" + String.format("%.2f", currentTPS) + ").", "primeassistant.notify");
-            } else if (currentTPS >= tpsThreshold && redstoneDisabled) {
+            } else if (currentTPS >= releaseTps && redstoneDisabled && tick - engagedAt >= minHoldTicks) {
+                // release through the per-chunk throttle so frozen circuits do not all restart in one tick
                 redstoneDisabled = false;
-                plugin.getLogger().info("TPS recovered to " + String.format("%.2f", currentTPS) + ". Re-enabling Redstone.");
-                Bukkit.broadcast(ChatColor.GREEN + "Redstone has been re-enabled.", "primeassistant.notify");
+                recovering = true;
+                appliedScale = minBudgetScale;
+                plugin.getLogger().info("TPS recovered to " + String.format("%.2f", currentTPS) + ". Re-enabling Redstone over " + recoverySeconds + "s.");
+                Bukkit.broadcast(ChatColor.GREEN + "Redstone is being re-enabled.", "primeassistant.notify");
+            }
+
+            if (recovering) {
+                appliedScale = Math.min(1.0, appliedScale + recoveryStep());
+                chunkThrottle.setBudget(chunkUpdatesPerSecond, appliedScale);
+                if (appliedScale >= 1.0) {
+                    recovering = false;
+                    chunkThrottle.clear();
+                    plugin.getLogger().info("Redstone fully re-enabled.");
+                }
             }
         }, 20L, 20L);
     }
 
+    /**
+     * Budget fraction regained per second while ramping back up.
+     */
+    private double recoveryStep() {
+        return Math.max(0.01, (1.0 - minBudgetScale) / recoverySeconds);
+    }
+
+    private void reportClocks() {
+        if (clocksFlagged == 0) return;
+        String action = breakClocks ? "broken" : "held";
+        plugin.getLogger().warning("Detected " + clocksFlagged + " redstone clock position(s), latest at " + lastClockLocation + " (" + action + ").");
+        Bukkit.broadcast(ChatColor.GOLD + "Detected " + clocksFlagged + " fast redstone clock position(s), latest at "
+                + lastClockLocation + " (" + action + ").", "primeassistant.notify");
+        clocksFlagged = 0;
+    }
+
+    private void updateThrottleBudget() {
+        double tickMillis = tickMonitor.getTickInterval5s();
+        long tick = tickMonitor.getCurrentTick();
+
+        // shrink at once, but only grow back after the hold time and then in steps
+        double target = budgetScale(tickMillis);
+        if (target < appliedScale) {
+            appliedScale = target;
+            engagedAt = tick;
+        } else if (target > appliedScale && tick - engagedAt >= minHoldTicks) {
+            appliedScale = Math.min(target, appliedScale + recoveryStep());
+        }
+        chunkThrottle.setBudget(chunkUpdatesPerSecond, appliedScale);
+        // a bucket is full again after one idle second, so older entries carry no state worth keeping
+        chunkThrottle.evictIdle(tick, 100L);
+
+        int throttled = chunkThrottle.drainThrottledChunks();
+        if (throttled > 0) {
+            if (!throttling) {
+                throttling = true;
+                plugin.getLogger().warning("Throttling redstone in " + throttled + " chunk(s) (tick interval: " + String.format("%.2f", tickMillis) + "ms"
+                        + ", budget: " + (int) chunkThrottle.getUpdatesPerSecond() + " updates/s per chunk).");
+            }
+            lastThrottledAt = tick;
+        } else if (throttling && tick - lastThrottledAt >= minHoldTicks) {
+            throttling = false;
+            plugin.getLogger().info("No chunks over their redstone budget anymore.");
+        }
+    }
+
+    /**
+     * Fraction of the per-chunk budget to grant: 1.0 while ticks fit in 50 ms, falling linearly to
+     * min-budget-scale as the tick interval approaches the one that corresponds to tps-threshold.
+     */
+    private double budgetScale(double tickMillis) {
+        if (tickMillis <= 50.0) return 1.0;
+        double ceiling = 1000.0 / Math.max(1.0, tpsThreshold);
+        if (ceiling <= 50.0) return minBudgetScale;
+        double headroom = (ceiling - tickMillis) / (ceiling - 50.0);
+        return Math.max(minBudgetScale, Math.min(1.0, headroom));
+    }
+
     private void startChunkMonitor() {
+        long[] topKeys = new long[3];
+        double[] topRates = new double[3];
         Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (getCurrentTPS() < tpsThreshold) {
-                List<Map.Entry<String, Integer>> sortedChunks = new ArrayList<>(chunkRedstoneEvents.entrySet());
-                sortedChunks.sort((a, b) -> b.getValue().compareTo(a.getValue()));
-
-                for (int i = 0; i < Math.min(3, sortedChunks.size()); i++) {
-                    String chunkKey = sortedChunks.get(i).getKey();
-                    int events = sortedChunks.get(i).getValue();
+            long tick = tickMonitor.getCurrentTick();
+            // the ranking is continuous, so there is no window to reset; just forget chunks that went quiet
+            for (ActivityScores scores : allActivity) {
+                scores.evict(tick, 0.5);
+            }
+            freezer.evictThawed(tick);
 
-                    if (events > 50) {
-                        purgeChunkRedstone(chunkKey);
+            if (enablePurge && getCurrentTPS() < tpsThreshold) {
+                // heaviest machines first: a piston wall outranks a wire line with the same event count
+                int n = costActivity.top(topKeys.length, tick, topKeys, topRates);
+                for (int i = 0; i < n; i++) {
+                    if (topRates[i] > PURGE_MIN_COST_PER_SECOND) {
+                        purgeChunkRedstone(topKeys[i]);
                     }
                 }
+            } else if (freezer.frozenCount() > 0 && serverRecovered()) {
+                thawOneChunk(tick);
             }
-            chunkRedstoneEvents.clear();
         }, 100L, 100L);
     }
 
+    private boolean serverRecovered() {
+        return getCurrentTPS() >= releaseTps && tickMonitor.getTickInterval5s() <= 1000.0 / releaseTps;
+    }
+
+    /**
+     * Restore the longest-frozen chunk that has been held long enough and has gone quiet.
+     * One chunk per cycle, so a recovering server does not restart every machine at once.
+     * A frozen chunk records no cost, so "quiet" is judged by what its freeze is still holding back.
+     */
+    private void thawOneChunk(long tick) {
+        long[] pick = {0L, Long.MAX_VALUE};
+        freezer.forEachFrozen((key, frozenAt, holdUntil) -> {
+            if (tick < holdUntil || frozenAt >= pick[1]) return;
+            if (heldActivity.rate(key, tick) >= THAW_MAX_HELD_PER_SECOND) return;
+            pick[0] = key;
+            pick[1] = frozenAt;
+        });
+        if (pick[1] != Long.MAX_VALUE) freezer.thaw(pick[0]);
+    }
+
+    private Material placeholder() {
+        Material m = Material.matchMaterial(cfg.getRedstoneFreezePlaceholder().trim());
+        return m == null ? Material.STRUCTURE_VOID : m;
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onRedstone(BlockRedstoneEvent event) {
-        if (enablePurge) {
-            String chunkKey = getChunkKey(event.getBlock().getChunk());
-            chunkRedstoneEvents.merge(chunkKey, 1, Integer::sum);
+        if (freezer.frozenCount() > 0) {
+            long frozenKey = ChunkKeys.of(event.getBlock());
+            if (freezer.isFrozen(frozenKey)) {
+                event.setNewCurrent(event.getOldCurrent());
+                heldActivity.add(frozenKey, 1.0, tickMonitor.getCurrentTick());
+                return;
+            }
+        }
+        if (clockDetection && holdClock(event.getBlock(), event)) {
+            return;
+        }
+
+        long chunkKey = ChunkKeys.of(event.getBlock());
+        long tick = tickMonitor.getCurrentTick();
+        chunkActivity.add(chunkKey, 1.0, tick);
+        if (event.getBlock().getType() == Material.OBSERVER) {
+            observerActivity.add(chunkKey, 1.0, tick);
+            costActivity.add(chunkKey, observerCost, tick);
+        } else {
+            costActivity.add(chunkKey, redstoneCost, tick);
         }
 
-        if (redstoneDisabled) {
+        if (throttleMode) {
+            // only chunks that exceed their budget are held; everything else keeps running
+            if (!chunkThrottle.tryAcquire(chunkKey, tick)) {
+                event.setNewCurrent(event.getOldCurrent());
+            }
+            return;
+        }
+
+        if (redstoneDisabled || (recovering && !chunkThrottle.tryAcquire(chunkKey, tick))) {
             event.setNewCurrent(event.getOldCurrent());
         }
     }
 
-    private void purgeChunkRedstone(String chunkKey) {
-        String[] parts = chunkKey.split(":");
-        String worldName = parts[0];
-        int x = Integer.parseInt(parts[1]);
-        int z = Integer.parseInt(parts[2]);
-
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            Chunk chunk = Bukkit.getWorld(worldName).getChunkAt(x, z);
-            int removed = 0;
-
-            for (int bx = 0; bx < 16; bx++) {
-                for (int bz = 0; bz < 16; bz++) {
-                    for (int by = chunk.getWorld().getMinHeight(); by < chunk.getWorld().getMaxHeight(); by++) {
-                        Block block = chunk.getBlock(bx, by, bz);
-                        if (redstoneBlocks.contains(block.getType())) {
-                            block.setType(Material.AIR);
-                            removed++;
-                        }
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        recordPiston(event.getBlock(), event.getBlocks().size());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        recordPiston(event.getBlock(), event.getBlocks().size());
+    }
+
+    private void recordPiston(Block piston, int moved) {
+        long chunkKey = ChunkKeys.of(piston);
+        long tick = tickMonitor.getCurrentTick();
+        pistonActivity.add(chunkKey, moved, tick);
+        // every moved block becomes a moving block entity plus neighbour updates at both ends
+        costActivity.add(chunkKey, pistonCost + pistonBlockCost * moved, tick);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent event) {
+        long chunkKey = ChunkKeys.of(event.getBlock());
+        long tick = tickMonitor.getCurrentTick();
+        dispenserActivity.add(chunkKey, 1.0, tick);
+        costActivity.add(chunkKey, dispenserCost, tick);
+    }
+
+    /**
+     * Cancel hopper transfers over the per-hopper or per-chunk limit while ticks run long. A cancelled
+     * hopper simply retries on its next cooldown, so items are deferred rather than lost.
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onHopperLimit(InventoryMoveItemEvent event) {
+        if (!hopperLimits || tickMonitor.getTickInterval5s() < hopperEnforceTickMillis) return;
+        Location loc = event.getInitiator().getLocation();
+        if (loc == null || loc.getWorld() == null) return;
+        long chunkKey = ChunkKeys.of(loc);
+        long tick = tickMonitor.getCurrentTick();
+        long blockKey = BlockKeys.pack(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        if (!hopperLimiter.tryTransfer(ChunkKeys.worldIndex(loc.getWorld()), chunkKey, blockKey, tick)) {
+            event.setCancelled(true);
+            hopperDeniedActivity.add(chunkKey, 1.0, tick);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        Location loc = event.getInitiator().getLocation();
+        if (loc == null || loc.getWorld() == null) return;
+        long chunkKey = ChunkKeys.of(loc);
+        long tick = tickMonitor.getCurrentTick();
+        hopperActivity.add(chunkKey, 1.0, tick);
+        costActivity.add(chunkKey, hopperCost, tick);
+    }
+
+    /**
+     * Feed the clock detector and hold the event if this position is a flagged clock.
+     * Returns true when the event was held.
+     */
+    private boolean holdClock(Block block, BlockRedstoneEvent event) {
+        long tick = tickMonitor.getCurrentTick();
+        boolean rising = event.getOldCurrent() == 0 && event.getNewCurrent() > 0;
+        int world = ChunkKeys.worldIndex(block.getWorld());
+        long pos = BlockKeys.pack(block.getX(), block.getY(), block.getZ());
+
+        int state = clockDetector.record(world, pos, tick, rising);
+        if (state == ClockDetector.OK) return false;
+
+        boolean breakable = breakClocks && redstoneBlocks.contains(block.getType());
+        if (state == ClockDetector.NEWLY_FLAGGED) {
+            clocksFlagged++;
+            lastClockLocation = block.getWorld().getName() + " " + block.getX() + ", " + block.getY() + ", " + block.getZ();
+            if (breakable) {
+                // never change blocks from inside the redstone update itself
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (redstoneBlocks.contains(block.getType())) {
+                        block.breakNaturally();
+                        index.remove(block);
                     }
-                }
+                });
             }
+        }
+        if (breakable) return false;
 
-            if (removed > 0) {
-                plugin.getLogger().warning("Purged " + removed + " redstone blocks from chunk " + chunkKey);
-                Bukkit.broadcast(ChatColor.GOLD + "Removed " + removed + " redstone blocks from a lagging chunk at " +
-                        (chunk.getX() * 16) + ", " + (chunk.getZ() * 16), "primeassistant.notify");
-            }
-        });
+        event.setNewCurrent(event.getOldCurrent());
+        return true;
     }
 
-    private String getChunkKey(Chunk chunk) {
-        return chunk.getWorld().getName() + ":" + chunk.getX() + ":" + chunk.getZ();
+    private void purgeChunkRedstone(long chunkKey) {
+        if (freezeOnPurge) {
+            freezer.freeze(chunkKey);
+        } else {
+            purger.purge(chunkKey);
+        }
     }
 
     private double getCurrentTPS() {
-        try {
-            Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
-            double[] recentTps = (double[]) server.getClass().getField("recentTps").get(server);
-            double tps = recentTps[0];
-            return Math.min(tps, 20.0);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to get TPS: " + e.getMessage());
-            return 20.0;
-        }
+        return tickMonitor.getTps1m();
     }
-}
\ No newline at end of file
+}
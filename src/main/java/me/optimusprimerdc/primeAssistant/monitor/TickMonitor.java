@@ -0,0 +1,41 @@
+package me.optimusprimerdc.primeAssistant.monitor;
+
+/**
+ * Read-only view of server tick health. All getters are plain field reads and safe to call
+ * from event handlers on every invocation.
+ *
+ * The tick interval values are the wall-clock time between two consecutive ticks, not the work done
+ * inside a tick (which Spigot does not expose). The server sleeps out the rest of each 50 ms tick, so
+ * a healthy server reports about 50 ms and the values never drop meaningfully below that; only the
+ * part above 50 ms means the server is falling behind. Thresholds on these values must therefore sit
+ * above 50 ms, or they count a healthy server as overloaded.
+ */
+public interface TickMonitor {
+
+    double getTps1s();
+
+    double getTps5s();
+
+    double getTps1m();
+
+    /**
+     * Mean milliseconds between ticks over the last 5 seconds (about 50 when healthy); updated every tick.
+     */
+    double getTickInterval5s();
+
+    /**
+     * Mean milliseconds between ticks over the last minute (about 50 when healthy).
+     */
+    double getTickIntervalMean();
+
+    double getTickIntervalP95();
+
+    double getTickIntervalP99();
+
+    double getTickIntervalMax();
+
+    /**
+     * Number of ticks sampled since the monitor started; a cheap monotonic clock for per-tick bookkeeping.
+     */
+    long getCurrentTick();
+}
@@ -0,0 +1,160 @@
+package me.optimusprimerdc.primeAssistant.monitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+
+/**
+ * Measures tick durations itself with a 1-tick repeating task that records System.nanoTime
+ * deltas into a one-minute ring buffer. TPS windows are maintained as rolling sums every tick;
+ * interval percentiles are recomputed once per second. Readers only ever see published fields.
+ *
+ * The sample is the wall-clock interval between two scheduler runs, not the work done in the tick,
+ * so a healthy server reports ~50 ms and anything above that is time the tick overran its budget.
+ */
+public class TickSampler implements TickMonitor, Runnable {
+
+    private static final int ONE_SECOND = 20;
+    private static final int FIVE_SECONDS = 100;
+    private static final int ONE_MINUTE = 1200;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Plugin plugin;
+    private final long[] samples = new long[ONE_MINUTE];
+    private final long[] sorted = new long[ONE_MINUTE];
+    private int head = 0;
+    private int count = 0;
+    private long lastTick = 0L;
+    private volatile long tickCount = 0L;
+    private long sum1s = 0L;
+    private long sum5s = 0L;
+    private long sum1m = 0L;
+    private BukkitTask task;
+
+    private volatile double tps1s = 20.0;
+    private volatile double tps5s = 20.0;
+    private volatile double tps1m = 20.0;
+    private volatile double interval5s = 50.0;
+    private volatile double intervalMean = 50.0;
+    private volatile double intervalP95 = 50.0;
+    private volatile double intervalP99 = 50.0;
+    private volatile double intervalMax = 50.0;
+
+    public TickSampler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public synchronized void start() {
+        if (task != null) return;
+        lastTick = 0L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (lastTick != 0L) {
+            record(now - lastTick);
+        }
+        lastTick = now;
+        tickCount++;
+    }
+
+    private void record(long delta) {
+        // drop the samples that fall out of each window before overwriting the oldest slot
+        if (count >= ONE_SECOND) sum1s -= samples[(head - ONE_SECOND + ONE_MINUTE) % ONE_MINUTE];
+        if (count >= FIVE_SECONDS) sum5s -= samples[(head - FIVE_SECONDS + ONE_MINUTE) % ONE_MINUTE];
+        if (count >= ONE_MINUTE) sum1m -= samples[head];
+
+        samples[head] = delta;
+        head = (head + 1) % ONE_MINUTE;
+        if (count < ONE_MINUTE) count++;
+
+        sum1s += delta;
+        sum5s += delta;
+        sum1m += delta;
+
+        tps1s = tps(Math.min(count, ONE_SECOND), sum1s);
+        tps5s = tps(Math.min(count, FIVE_SECONDS), sum5s);
+        tps1m = tps(count, sum1m);
+        interval5s = (sum5s / (double) Math.min(count, FIVE_SECONDS)) / NANOS_PER_MILLI;
+
+        if (head % ONE_SECOND == 0) {
+            publishIntervals();
+        }
+    }
+
+    private void publishIntervals() {
+        int n = count;
+        // the ring is filled from index 0, so the first n slots are exactly the live samples
+        System.arraycopy(samples, 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+        intervalMean = (sum1m / (double) n) / NANOS_PER_MILLI;
+        intervalP95 = sorted[percentileIndex(n, 0.95)] / NANOS_PER_MILLI;
+        intervalP99 = sorted[percentileIndex(n, 0.99)] / NANOS_PER_MILLI;
+        intervalMax = sorted[n - 1] / NANOS_PER_MILLI;
+    }
+
+    private static int percentileIndex(int n, double p) {
+        return Math.min(n - 1, (int) Math.ceil(p * n) - 1);
+    }
+
+    private static double tps(int ticks, long nanos) {
+        if (nanos <= 0L) return 20.0;
+        return Math.min(20.0, ticks * 1_000_000_000.0 / nanos);
+    }
+
+    @Override
+    public double getTps1s() {
+        return tps1s;
+    }
+
+    @Override
+    public double getTps5s() {
+        return tps5s;
+    }
+
+    @Override
+    public double getTps1m() {
+        return tps1m;
+    }
+
+    @Override
+    public double getTickInterval5s() {
+        return interval5s;
+    }
+
+    @Override
+    public double getTickIntervalMean() {
+        return intervalMean;
+    }
+
+    @Override
+    public double getTickIntervalP95() {
+        return intervalP95;
+    }
+
+    @Override
+    public double getTickIntervalP99() {
+        return intervalP99;
+    }
+
+    @Override
+    public double getTickIntervalMax() {
+        return intervalMax;
+    }
+
+    @Override
+    public long getCurrentTick() {
+        return tickCount;
+    }
+}
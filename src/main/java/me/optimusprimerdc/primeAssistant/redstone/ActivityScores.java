@@ -0,0 +1,259 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.util.LongHash;
+
+import java.util.Arrays;
+
+/**
+ * Exponentially decayed activity rate per chunk with a bounded top-K ranking.
+ *
+ * Uses forward decay: a hit at tick t adds weight * e^(lambda * (t - landmark)) instead of decaying
+ * every stored score, so an update is one probe plus a multiply and scores never have to be touched
+ * when time passes. Because every score is expressed relative to the same landmark, the ordering is
+ * time-invariant and the top-K min-heap stays valid between updates. The landmark is moved forward
+ * now and then to keep the growth factor in range. Main thread only.
+ */
+public class ActivityScores {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    // renormalise before the growth factor gets anywhere near double overflow
+    private static final double MAX_EXPONENT = 200.0;
+
+    private long[] keys;
+    private double[] scores;
+    private int[] heapIndex;
+    private int mask;
+    private int size;
+
+    private final long[] heapKeys;
+    private final double[] heapScores;
+    private int heapSize;
+
+    private double lambda;
+    private double ratePerSecondFactor;
+    private long landmark;
+    private long cachedTick = -1L;
+    private double cachedGrowth = 1.0;
+
+    public ActivityScores(int topK, double halfLifeSeconds) {
+        this.heapKeys = new long[Math.max(1, topK)];
+        this.heapScores = new double[heapKeys.length];
+        allocate(256);
+        setHalfLife(halfLifeSeconds);
+    }
+
+    public void setHalfLife(double halfLifeSeconds) {
+        double ticks = Math.max(1.0, halfLifeSeconds * 20.0);
+        // keep existing scores meaningful: fold them to the current landmark before lambda changes
+        if (cachedTick >= 0) renormalize(cachedTick);
+        this.lambda = Math.log(2.0) / ticks;
+        // a steady r hits/tick settles at S = r / (1 - e^-lambda), so rate/s = S * (1 - e^-lambda) * 20
+        this.ratePerSecondFactor = (1.0 - Math.exp(-lambda)) * 20.0;
+    }
+
+    public int capacity() {
+        return heapKeys.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Record weight units of activity for the chunk at the given tick.
+     */
+    public void add(long key, double weight, long tick) {
+        double growth = growth(tick);
+        int slot = indexOf(key);
+        if (keys[slot] != key) {
+            if (size + 1 > (mask + 1) >> 1) {
+                rehash((mask + 1) << 1);
+                slot = indexOf(key);
+            }
+            keys[slot] = key;
+            scores[slot] = 0.0;
+            heapIndex[slot] = -1;
+            size++;
+        }
+        scores[slot] += weight * growth;
+        offer(slot);
+    }
+
+    /**
+     * Current decayed rate for the chunk in weight units per second.
+     */
+    public double rate(long key, long tick) {
+        int slot = indexOf(key);
+        return keys[slot] == key ? toRate(scores[slot], tick) : 0.0;
+    }
+
+    /**
+     * Fill the output arrays with up to n of the busiest chunks, busiest first. Returns the count written.
+     */
+    public int top(int n, long tick, long[] outKeys, double[] outRates) {
+        int count = Math.min(Math.min(n, heapSize), Math.min(outKeys.length, outRates.length));
+        long[] k = Arrays.copyOf(heapKeys, heapSize);
+        double[] s = Arrays.copyOf(heapScores, heapSize);
+        // partial selection sort: n is tiny and this runs once per monitor cycle
+        for (int i = 0; i < count; i++) {
+            int best = i;
+            for (int j = i + 1; j < k.length; j++) {
+                if (s[j] > s[best]) best = j;
+            }
+            long tk = k[i]; k[i] = k[best]; k[best] = tk;
+            double ts = s[i]; s[i] = s[best]; s[best] = ts;
+            outKeys[i] = k[i];
+            outRates[i] = toRate(s[i], tick);
+        }
+        return count;
+    }
+
+    public void forEach(long tick, Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) visitor.accept(keys[i], toRate(scores[i], tick));
+        }
+    }
+
+    /**
+     * Drop chunks whose rate has decayed below minRate and rebuild the ranking from what is left.
+     */
+    public void evict(long tick, double minRate) {
+        renormalize(tick);
+        long[] oldKeys = keys;
+        double[] oldScores = scores;
+        allocate(Math.max(256, Integer.highestOneBit(Math.max(1, size)) << 2));
+        size = 0;
+        heapSize = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY || toRate(oldScores[i], tick) < minRate) continue;
+            int slot = indexOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            scores[slot] = oldScores[i];
+            heapIndex[slot] = -1;
+            size++;
+            offer(slot);
+        }
+    }
+
+    public void clear() {
+        allocate(256);
+        size = 0;
+        heapSize = 0;
+    }
+
+    private double toRate(double score, long tick) {
+        return score * Math.exp(-lambda * (tick - landmark)) * ratePerSecondFactor;
+    }
+
+    private double growth(long tick) {
+        if (tick != cachedTick) {
+            if (lambda * (tick - landmark) > MAX_EXPONENT) renormalize(tick);
+            cachedTick = tick;
+            cachedGrowth = Math.exp(lambda * (tick - landmark));
+        }
+        return cachedGrowth;
+    }
+
+    private void renormalize(long tick) {
+        double factor = Math.exp(-lambda * (tick - landmark));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) scores[i] *= factor;
+        }
+        for (int i = 0; i < heapSize; i++) {
+            heapScores[i] *= factor;
+        }
+        landmark = tick;
+        cachedTick = -1L;
+    }
+
+    // ---- top-K min-heap: root holds the weakest of the K busiest chunks ----
+
+    private void offer(int slot) {
+        int hi = heapIndex[slot];
+        if (hi >= 0) {
+            // scores only grow between evictions, so the entry can only sink towards the leaves
+            heapScores[hi] = scores[slot];
+            siftDown(hi);
+        } else if (heapSize < heapKeys.length) {
+            heapKeys[heapSize] = keys[slot];
+            heapScores[heapSize] = scores[slot];
+            heapIndex[slot] = heapSize;
+            siftUp(heapSize++);
+        } else if (scores[slot] > heapScores[0]) {
+            heapIndex[indexOf(heapKeys[0])] = -1;
+            heapKeys[0] = keys[slot];
+            heapScores[0] = scores[slot];
+            heapIndex[slot] = 0;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heapScores[parent] <= heapScores[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = (i << 1) + 1;
+            if (left >= heapSize) break;
+            int right = left + 1;
+            int smallest = right < heapSize && heapScores[right] < heapScores[left] ? right : left;
+            if (heapScores[i] <= heapScores[smallest]) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long ka = heapKeys[a];
+        double sa = heapScores[a];
+        heapKeys[a] = heapKeys[b];
+        heapScores[a] = heapScores[b];
+        heapKeys[b] = ka;
+        heapScores[b] = sa;
+        heapIndex[indexOf(heapKeys[a])] = a;
+        heapIndex[indexOf(heapKeys[b])] = b;
+    }
+
+    // ---- open-addressing table ----
+
+    private int indexOf(long key) {
+        int slot = LongHash.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldScores = scores;
+        int[] oldHeapIndex = heapIndex;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = indexOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            scores[slot] = oldScores[i];
+            heapIndex[slot] = oldHeapIndex[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        scores = new double[capacity];
+        heapIndex = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long key, double rate);
+    }
+}
@@ -0,0 +1,174 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.util.LongHash;
+
+import java.util.Arrays;
+
+/**
+ * Per-chunk token buckets for redstone updates, stored in parallel primitive arrays keyed by
+ * packed chunk keys (the hopper limiter also keys them by packed block position). Buckets refill
+ * lazily on access from the tick clock, so an update costs one probe and a few arithmetic ops.
+ * Main thread only.
+ */
+public class ChunkThrottle {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private float[] tokens;
+    private long[] lastRefill;
+    private int[] denied;
+    private int mask;
+    private int size;
+
+    private float perSecond;
+    private float capacity;
+    private float perTick;
+
+    public ChunkThrottle(int updatesPerSecond) {
+        allocate(256);
+        setBudget(updatesPerSecond, 1.0);
+    }
+
+    /**
+     * Set the per-chunk budget. The scale (0..1) shrinks it when the server is falling behind its tick rate.
+     * Existing buckets are clamped to the new capacity on their next refill.
+     */
+    public void setBudget(int updatesPerSecond, double scale) {
+        this.perSecond = (float) (Math.max(1, updatesPerSecond) * Math.max(0.0, Math.min(1.0, scale)));
+        this.capacity = Math.max(1f, perSecond);
+        this.perTick = perSecond / 20f;
+    }
+
+    public float getUpdatesPerSecond() {
+        return perSecond;
+    }
+
+    /**
+     * Take one token from the chunk's bucket. Returns false when the chunk is over budget.
+     */
+    public boolean tryAcquire(long key, long tick) {
+        int slot = slotFor(key, tick);
+        float available = Math.min(capacity, tokens[slot] + (tick - lastRefill[slot]) * perTick);
+        lastRefill[slot] = tick;
+        if (available >= 1f) {
+            tokens[slot] = available - 1f;
+            return true;
+        }
+        tokens[slot] = available;
+        denied[slot]++;
+        return false;
+    }
+
+    /**
+     * Give back a token taken by tryAcquire for an update that did not happen after all.
+     */
+    public void refund(long key) {
+        int slot = indexOf(key);
+        if (keys[slot] == key) tokens[slot] = Math.min(capacity, tokens[slot] + 1f);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of chunks that had updates denied since the last call, resetting the denial counters.
+     */
+    public int drainThrottledChunks() {
+        int throttled = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && denied[i] > 0) {
+                throttled++;
+                denied[i] = 0;
+            }
+        }
+        return throttled;
+    }
+
+    /**
+     * Forget buckets that have been idle long enough to be full again, so the table only holds active chunks.
+     */
+    public void evictIdle(long tick, long idleTicks) {
+        long[] oldKeys = keys;
+        float[] oldTokens = tokens;
+        long[] oldRefill = lastRefill;
+        int[] oldDenied = denied;
+
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && tick - oldRefill[i] < idleTicks) live++;
+        }
+        if (live == size) return;
+
+        allocate(capacityFor(live));
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY || tick - oldRefill[i] >= idleTicks) continue;
+            int slot = indexOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            tokens[slot] = oldTokens[i];
+            lastRefill[slot] = oldRefill[i];
+            denied[slot] = oldDenied[i];
+            size++;
+        }
+    }
+
+    public void clear() {
+        allocate(256);
+        size = 0;
+    }
+
+    private int slotFor(long key, long tick) {
+        int slot = indexOf(key);
+        if (keys[slot] != key) {
+            if (size + 1 > (mask + 1) >> 1) {
+                grow();
+                slot = indexOf(key);
+            }
+            keys[slot] = key;
+            tokens[slot] = capacity;
+            lastRefill[slot] = tick;
+            denied[slot] = 0;
+            size++;
+        }
+        return slot;
+    }
+
+    private int indexOf(long key) {
+        int slot = LongHash.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        float[] oldTokens = tokens;
+        long[] oldRefill = lastRefill;
+        int[] oldDenied = denied;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = indexOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            tokens[slot] = oldTokens[i];
+            lastRefill[slot] = oldRefill[i];
+            denied[slot] = oldDenied[i];
+        }
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        tokens = new float[cap];
+        lastRefill = new long[cap];
+        denied = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        mask = cap - 1;
+    }
+
+    private static int capacityFor(int live) {
+        return Math.max(256, Integer.highestOneBit(Math.max(1, live)) << 2);
+    }
+}
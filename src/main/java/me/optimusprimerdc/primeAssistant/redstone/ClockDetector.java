@@ -0,0 +1,133 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.util.LongHash;
+
+import java.util.Arrays;
+
+/**
+ * Tracks how fast individual block positions toggle to spot redstone clocks.
+ *
+ * Every rising edge at a position is compared with the previous one; while the period stays at or
+ * below maxPeriodTicks the position keeps a "fast since" timestamp, and once that streak is longer
+ * than minDurationTicks the position is flagged for holdTicks.
+ *
+ * Storage is a fixed-size 4-way set-associative table of primitive arrays: it never grows, and a
+ * new position evicts the least recently updated entry of its set. Main thread only.
+ */
+public class ClockDetector {
+
+    public static final int OK = 0;
+    public static final int FLAGGED = 1;
+    public static final int NEWLY_FLAGGED = 2;
+
+    private static final int WAYS = 4;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] positions;
+    private final int[] worlds;
+    private final long[] lastSeen;
+    private final long[] lastRise;
+    private final long[] fastSince;
+    private final long[] flaggedUntil;
+    private final int setMask;
+
+    private int maxPeriodTicks;
+    private long minDurationTicks;
+    private long holdTicks;
+
+    public ClockDetector(int capacity, int maxPeriodTicks, int minDurationSeconds, int holdSeconds) {
+        int sets = Integer.highestOneBit(Math.max(WAYS, capacity) / WAYS);
+        int size = sets * WAYS;
+        this.positions = new long[size];
+        this.worlds = new int[size];
+        this.lastSeen = new long[size];
+        this.lastRise = new long[size];
+        this.fastSince = new long[size];
+        this.flaggedUntil = new long[size];
+        this.setMask = sets - 1;
+        Arrays.fill(positions, EMPTY);
+        configure(maxPeriodTicks, minDurationSeconds, holdSeconds);
+    }
+
+    public void configure(int maxPeriodTicks, int minDurationSeconds, int holdSeconds) {
+        this.maxPeriodTicks = Math.max(1, maxPeriodTicks);
+        this.minDurationTicks = Math.max(1, minDurationSeconds) * 20L;
+        this.holdTicks = Math.max(1, holdSeconds) * 20L;
+    }
+
+    /**
+     * Record a redstone change at a block position and return OK, FLAGGED or NEWLY_FLAGGED.
+     */
+    public int record(int world, long pos, long tick, boolean rising) {
+        int slot = slotFor(world, pos, tick);
+        lastSeen[slot] = tick;
+
+        if (flaggedUntil[slot] > tick) {
+            return FLAGGED;
+        }
+        if (!rising) {
+            return OK;
+        }
+
+        long previous = lastRise[slot];
+        lastRise[slot] = tick;
+        if (previous < 0 || tick - previous > maxPeriodTicks) {
+            // first edge or a slow one: start a new candidate streak
+            fastSince[slot] = tick;
+            return OK;
+        }
+        if (tick - fastSince[slot] >= minDurationTicks) {
+            flaggedUntil[slot] = tick + holdTicks;
+            fastSince[slot] = tick;
+            return NEWLY_FLAGGED;
+        }
+        return OK;
+    }
+
+    public boolean isFlagged(int world, long pos, long tick) {
+        int base = setBase(world, pos);
+        for (int i = base; i < base + WAYS; i++) {
+            if (positions[i] == pos && worlds[i] == world) return flaggedUntil[i] > tick;
+        }
+        return false;
+    }
+
+    /**
+     * Number of positions currently flagged as clocks.
+     */
+    public int flaggedCount(long tick) {
+        int n = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] != EMPTY && flaggedUntil[i] > tick) n++;
+        }
+        return n;
+    }
+
+    public void clear() {
+        Arrays.fill(positions, EMPTY);
+    }
+
+    private int setBase(int world, long pos) {
+        return (LongHash.mix(pos ^ ((long) world << 58)) & setMask) * WAYS;
+    }
+
+    private int slotFor(int world, long pos, long tick) {
+        int base = setBase(world, pos);
+        int victim = base;
+        for (int i = base; i < base + WAYS; i++) {
+            if (positions[i] == pos && worlds[i] == world) return i;
+            if (positions[i] == EMPTY) {
+                victim = i;
+                break;
+            }
+            if (lastSeen[i] < lastSeen[victim]) victim = i;
+        }
+        positions[victim] = pos;
+        worlds[victim] = world;
+        lastSeen[victim] = tick;
+        lastRise[victim] = -1L;
+        fastSince[victim] = tick;
+        flaggedUntil[victim] = 0L;
+        return victim;
+    }
+}
@@ -0,0 +1,93 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import java.util.Arrays;
+
+/**
+ * Rate limits hopper item transfers per chunk and per hopper with token buckets.
+ *
+ * Per-hopper buckets are keyed by packed block position in one table per world, since a BlockKeys
+ * value already uses all 64 bits. The hopper bucket is checked before the chunk bucket so a hopper
+ * that is over its own limit never spends its chunk's tokens, and a hopper whose chunk is over budget
+ * gets its own token back. Main thread only.
+ */
+public class HopperLimiter {
+
+    private final ChunkThrottle chunks;
+    private ChunkThrottle[] hoppersByWorld = new ChunkThrottle[0];
+    private int chunkPerSecond;
+    private int hopperPerSecond;
+    private long allowed;
+    private long denied;
+
+    public HopperLimiter(int chunkPerSecond, int hopperPerSecond) {
+        this.chunks = new ChunkThrottle(chunkPerSecond);
+        configure(chunkPerSecond, hopperPerSecond);
+    }
+
+    public void configure(int chunkPerSecond, int hopperPerSecond) {
+        this.chunkPerSecond = Math.max(1, chunkPerSecond);
+        this.hopperPerSecond = Math.max(1, hopperPerSecond);
+        chunks.setBudget(this.chunkPerSecond, 1.0);
+        for (ChunkThrottle t : hoppersByWorld) {
+            if (t != null) t.setBudget(this.hopperPerSecond, 1.0);
+        }
+    }
+
+    /**
+     * Take a transfer token for the hopper at blockKey in the given chunk. Returns false when either
+     * the hopper or its chunk is over budget.
+     */
+    public boolean tryTransfer(int worldIndex, long chunkKey, long blockKey, long tick) {
+        ChunkThrottle hoppers = hoppers(worldIndex);
+        if (!hoppers.tryAcquire(blockKey, tick)) {
+            denied++;
+            return false;
+        }
+        if (!chunks.tryAcquire(chunkKey, tick)) {
+            // the chunk cap already holds this hopper back; do not also drain its own bucket
+            hoppers.refund(blockKey);
+            denied++;
+            return false;
+        }
+        allowed++;
+        return true;
+    }
+
+    /**
+     * Forget buckets that have refilled completely.
+     */
+    public void evictIdle(long tick, long idleTicks) {
+        chunks.evictIdle(tick, idleTicks);
+        for (ChunkThrottle t : hoppersByWorld) {
+            if (t != null) t.evictIdle(tick, idleTicks);
+        }
+    }
+
+    public long getAllowed() {
+        return allowed;
+    }
+
+    public long getDenied() {
+        return denied;
+    }
+
+    public int getChunkPerSecond() {
+        return chunkPerSecond;
+    }
+
+    public int getHopperPerSecond() {
+        return hopperPerSecond;
+    }
+
+    private ChunkThrottle hoppers(int worldIndex) {
+        if (worldIndex >= hoppersByWorld.length) {
+            hoppersByWorld = Arrays.copyOf(hoppersByWorld, worldIndex + 1);
+        }
+        ChunkThrottle t = hoppersByWorld[worldIndex];
+        if (t == null) {
+            t = new ChunkThrottle(hopperPerSecond);
+            hoppersByWorld[worldIndex] = t;
+        }
+        return t;
+    }
+}
@@ -0,0 +1,494 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-destructive alternative to the purger: freezes a chunk's redstone and restores it later.
+ *
+ * Components that carry no inventory (wire, torches, repeaters, comparators, observers, redstone
+ * blocks) are swapped for an inert placeholder and their BlockData is kept in a compact per-chunk
+ * store: one int per block, (palette index) << 20 | (y - minY) << 8 | z << 4 | x, plus a small
+ * palette of distinct BlockData. Pistons, dispensers, droppers and hoppers stay in place and are
+ * suppressed through their events instead, so no inventory is ever touched. The store is persisted
+ * in the chunk's PersistentDataContainer, so a frozen chunk survives unloads and restarts.
+ *
+ * Freezing and thawing run as batches bounded by a per-tick time budget. The placeholder a chunk was
+ * frozen with is stored alongside it, so changing freeze-placeholder later does not strand chunks
+ * that are already frozen. A position is only restored if it still holds that placeholder; entries
+ * that cannot be restored are logged with their block data.
+ *
+ * While a chunk is frozen its suppressed piston and dispenser activations are counted into a held
+ * activity score, so the caller can wait until the chunk has actually gone quiet before thawing it.
+ * A chunk that is frozen again shortly after it was restored is held twice as long as the previous
+ * time, up to 32 times the minimum hold. Main thread only.
+ */
+public class RedstoneFreezer implements Listener {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int LOCAL_BITS = 20;
+    private static final int LOCAL_MASK = (1 << LOCAL_BITS) - 1;
+    private static final int MAX_PALETTE = 1 << (32 - LOCAL_BITS);
+    private static final int MAX_LOGGED_SKIPS = 20;
+    private static final int MAX_BACKOFF_SHIFT = 5;
+    // a chunk that stays restored this long (or as long as its last hold, if longer) starts over
+    private static final long REFREEZE_WINDOW_TICKS = 5 * 60 * 20L;
+
+    private final Plugin plugin;
+    private final TickMonitor tickMonitor;
+    private final RedstoneIndex index;
+    private final ActivityScores held;
+    private final Set<Material> swappable = EnumSet.of(
+            Material.REDSTONE_WIRE, Material.REDSTONE_TORCH, Material.REDSTONE_WALL_TORCH,
+            Material.REPEATER, Material.COMPARATOR, Material.OBSERVER, Material.REDSTONE_BLOCK
+    );
+    private final NamespacedKey entriesKey;
+    private final NamespacedKey paletteKey;
+    private final NamespacedKey placeholderKey;
+    private final LongObjectMap<FrozenChunk> frozen = new LongObjectMap<>();
+    private final LongObjectMap<Thawed> thawed = new LongObjectMap<>();
+    private final ArrayDeque<Job> ready = new ArrayDeque<>();
+    private Material placeholder;
+    private long tickBudgetNanos;
+    private long minHoldTicks;
+    private BukkitTask applyTask;
+
+    public RedstoneFreezer(Plugin plugin, TickMonitor tickMonitor, RedstoneIndex index, ActivityScores held,
+                           Material placeholder, double tickBudgetMillis) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        this.index = index;
+        this.held = held;
+        this.entriesKey = new NamespacedKey(plugin, "redstone_frozen");
+        this.paletteKey = new NamespacedKey(plugin, "redstone_frozen_palette");
+        this.placeholderKey = new NamespacedKey(plugin, "redstone_frozen_placeholder");
+        setPlaceholder(placeholder);
+        setTickBudgetMillis(tickBudgetMillis);
+    }
+
+    public void register() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public void setPlaceholder(Material placeholder) {
+        this.placeholder = placeholder == null || !placeholder.isBlock() ? Material.STRUCTURE_VOID : placeholder;
+    }
+
+    public void setTickBudgetMillis(double millis) {
+        this.tickBudgetNanos = (long) (Math.max(0.1, millis) * 1_000_000L);
+    }
+
+    /**
+     * Shortest time a chunk stays frozen; repeat offenders are held for a multiple of it.
+     */
+    public void setMinHoldTicks(long ticks) {
+        this.minHoldTicks = Math.max(0L, ticks);
+    }
+
+    /**
+     * True while the chunk is being frozen, is frozen, or is still being restored.
+     */
+    public boolean isFrozen(long chunkKey) {
+        return frozen.containsKey(chunkKey);
+    }
+
+    public int frozenCount() {
+        return frozen.size();
+    }
+
+    /**
+     * Visit the loaded chunks that are fully frozen, with the tick they finished freezing and the
+     * first tick at which their hold time is over.
+     */
+    public void forEachFrozen(FrozenVisitor visitor) {
+        frozen.forEach((key, c) -> {
+            if (c.state == State.FROZEN) visitor.accept(key, c.frozenAt, c.frozenAt + holdTicks(c.refreezes));
+        });
+    }
+
+    /**
+     * Forget restored chunks that have stayed restored long enough to count as a fresh start.
+     */
+    public void evictThawed(long tick) {
+        thawed.removeIf((key, t) -> tick - t.at >= refreezeWindow(t.refreezes));
+    }
+
+    private long holdTicks(int refreezes) {
+        return minHoldTicks << Math.min(refreezes, MAX_BACKOFF_SHIFT);
+    }
+
+    private long refreezeWindow(int refreezes) {
+        return Math.max(REFREEZE_WINDOW_TICKS, holdTicks(refreezes));
+    }
+
+    /**
+     * Schedule a freeze of the chunk. No-op if it is already frozen or not loaded.
+     */
+    public void freeze(long chunkKey) {
+        World world = ChunkKeys.world(chunkKey);
+        if (world == null || !world.isChunkLoaded(ChunkKeys.chunkX(chunkKey), ChunkKeys.chunkZ(chunkKey))) return;
+        if (frozen.containsKey(chunkKey)) return;
+
+        FrozenChunk c = new FrozenChunk(world.getMinHeight(), 16, placeholder);
+        c.state = State.FREEZING;
+        Thawed last = thawed.remove(chunkKey);
+        if (last != null && tickMonitor.getCurrentTick() - last.at < refreezeWindow(last.refreezes)) {
+            c.refreezes = last.refreezes + 1;
+        }
+        frozen.put(chunkKey, c);
+        index.whenIndexed(chunkKey, () -> {
+            int[] positions = index.positions(chunkKey);
+            if (positions == null || frozen.get(chunkKey) != c) {
+                if (frozen.get(chunkKey) == c) frozen.remove(chunkKey);
+                return;
+            }
+            enqueue(new FreezeJob(chunkKey, c, positions));
+        });
+    }
+
+    /**
+     * Schedule a restore of a frozen chunk.
+     */
+    public void thaw(long chunkKey) {
+        FrozenChunk c = frozen.get(chunkKey);
+        if (c == null || c.state != State.FROZEN) return;
+        c.state = State.THAWING;
+        enqueue(new ThawJob(chunkKey, c));
+    }
+
+    /**
+     * Restore every loaded frozen chunk right now, ignoring the tick budget (used on disable).
+     * Chunks that are not loaded keep their stored state and are restored on a later load.
+     */
+    public void thawAllNow() {
+        stop();
+        List<Long> keys = new ArrayList<>(frozen.size());
+        frozen.forEach((key, c) -> keys.add(key));
+        for (long key : keys) {
+            FrozenChunk c = frozen.get(key);
+            if (c != null) new ThawJob(key, c).apply(Long.MAX_VALUE);
+        }
+        frozen.clear();
+    }
+
+    public void stop() {
+        if (applyTask != null) {
+            applyTask.cancel();
+            applyTask = null;
+        }
+        ready.clear();
+    }
+
+    private void enqueue(Job job) {
+        ready.add(job);
+        if (applyTask == null) {
+            applyTask = Bukkit.getScheduler().runTaskTimer(plugin, this::applyBatch, 1L, 1L);
+        }
+    }
+
+    private void applyBatch() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        while (!ready.isEmpty()) {
+            if (!ready.peek().apply(deadline)) return;
+            ready.poll();
+        }
+        applyTask.cancel();
+        applyTask = null;
+    }
+
+    private Chunk loadedChunk(long chunkKey) {
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        return world != null && world.isChunkLoaded(cx, cz) ? world.getChunkAt(cx, cz) : null;
+    }
+
+    // ---- persistence ----
+
+    private FrozenChunk read(Chunk chunk) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        int[] stored = pdc.get(entriesKey, PersistentDataType.INTEGER_ARRAY);
+        String palette = pdc.get(paletteKey, PersistentDataType.STRING);
+        if (stored == null || palette == null || stored.length < 2 || stored[0] != FORMAT_VERSION) return null;
+
+        // chunks frozen before the placeholder was stored used the configured one
+        String storedPlaceholder = pdc.get(placeholderKey, PersistentDataType.STRING);
+        Material inert = storedPlaceholder == null ? null : Material.matchMaterial(storedPlaceholder);
+        FrozenChunk c = new FrozenChunk(stored[1], stored.length - 2, inert == null ? placeholder : inert);
+        for (String data : palette.isEmpty() ? new String[0] : palette.split("\n")) {
+            BlockData parsed;
+            try {
+                parsed = Bukkit.createBlockData(data);
+            } catch (IllegalArgumentException e) {
+                // unknown after an update; keep the slot so indices line up, the entry is skipped on restore
+                parsed = null;
+            }
+            c.palette.add(parsed);
+        }
+        System.arraycopy(stored, 2, c.entries, 0, stored.length - 2);
+        c.size = stored.length - 2;
+        return c;
+    }
+
+    private void write(Chunk chunk, FrozenChunk c) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        if (c.size == 0) {
+            pdc.remove(entriesKey);
+            pdc.remove(paletteKey);
+            pdc.remove(placeholderKey);
+            return;
+        }
+        int[] out = new int[c.size + 2];
+        out[0] = FORMAT_VERSION;
+        out[1] = c.minY;
+        System.arraycopy(c.entries, 0, out, 2, c.size);
+        StringBuilder palette = new StringBuilder();
+        for (int i = 0; i < c.palette.size(); i++) {
+            if (i > 0) palette.append('\n');
+            BlockData data = c.palette.get(i);
+            palette.append(data == null ? "minecraft:air" : data.getAsString());
+        }
+        pdc.set(entriesKey, PersistentDataType.INTEGER_ARRAY, out);
+        pdc.set(paletteKey, PersistentDataType.STRING, palette.toString());
+        pdc.set(placeholderKey, PersistentDataType.STRING, c.placeholder.name());
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (event.isNewChunk()) return;
+        long key = ChunkKeys.of(event.getChunk());
+        if (frozen.containsKey(key)) return;
+        FrozenChunk stored = read(event.getChunk());
+        if (stored == null) return;
+        // counts as freshly frozen, so it goes through the same hold time before it is restored
+        stored.state = State.FROZEN;
+        stored.frozenAt = tickMonitor.getCurrentTick();
+        frozen.put(key, stored);
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        FrozenChunk c = frozen.remove(ChunkKeys.of(event.getChunk()));
+        // a job still holding this chunk sees it unloaded and stops; what was done so far is saved here
+        if (c != null) write(event.getChunk(), c);
+    }
+
+    // ---- suppression of the components that stay in place ----
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        hold(ChunkKeys.of(event.getBlock()), event);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        hold(ChunkKeys.of(event.getBlock()), event);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent event) {
+        hold(ChunkKeys.of(event.getBlock()), event);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        Location loc = event.getInitiator().getLocation();
+        if (loc == null || loc.getWorld() == null) return;
+        // not counted as held activity: a hopper with items retries every few ticks whether or not
+        // anything drives it, so storage would keep its chunk frozen forever
+        if (isFrozen(ChunkKeys.of(loc))) event.setCancelled(true);
+    }
+
+    private void hold(long chunkKey, Cancellable event) {
+        if (!isFrozen(chunkKey)) return;
+        event.setCancelled(true);
+        held.add(chunkKey, 1.0, tickMonitor.getCurrentTick());
+    }
+
+    @FunctionalInterface
+    public interface FrozenVisitor {
+        void accept(long chunkKey, long frozenAtTick, long holdUntilTick);
+    }
+
+    private enum State { FREEZING, FROZEN, THAWING }
+
+    private interface Job {
+        /** Work until done or the deadline passes. Returns true once the job is finished. */
+        boolean apply(long deadline);
+    }
+
+    private final class FreezeJob implements Job {
+        private final long chunkKey;
+        private final FrozenChunk target;
+        private final int[] positions;
+        private int cursor = 0;
+
+        private FreezeJob(long chunkKey, FrozenChunk target, int[] positions) {
+            this.chunkKey = chunkKey;
+            this.target = target;
+            this.positions = positions;
+        }
+
+        @Override
+        public boolean apply(long deadline) {
+            Chunk chunk = loadedChunk(chunkKey);
+            if (chunk == null || frozen.get(chunkKey) != target) return true;
+            BlockData inert = target.placeholder.createBlockData();
+            while (cursor < positions.length) {
+                int local = positions[cursor++];
+                Block block = chunk.getBlock(local & 15, (local >>> 8) + target.minY, (local >>> 4) & 15);
+                if (swappable.contains(block.getType())) {
+                    int paletteIndex = target.paletteIndex(block.getBlockData());
+                    if (paletteIndex >= 0) {
+                        target.append((paletteIndex << LOCAL_BITS) | local);
+                        // no physics: neighbours must not pop or re-power while the machine is taken apart
+                        block.setBlockData(inert, false);
+                    }
+                }
+                if ((cursor & 15) == 0 && System.nanoTime() >= deadline) {
+                    if (cursor < positions.length) return false;
+                }
+            }
+            target.state = State.FROZEN;
+            target.frozenAt = tickMonitor.getCurrentTick();
+            write(chunk, target);
+            plugin.getLogger().warning("Froze " + target.size + " redstone blocks in chunk " + ChunkKeys.describe(chunkKey));
+            Bukkit.broadcast(ChatColor.GOLD + "Froze redstone in a lagging chunk at " + (ChunkKeys.chunkX(chunkKey) * 16) + ", "
+                    + (ChunkKeys.chunkZ(chunkKey) * 16) + "; it will be restored once the server recovers.", "primeassistant.notify");
+            return true;
+        }
+    }
+
+    private final class ThawJob implements Job {
+        private final long chunkKey;
+        private final FrozenChunk target;
+        private int restored = 0;
+        private int skipped = 0;
+        private final StringBuilder skippedDetail = new StringBuilder();
+
+        private ThawJob(long chunkKey, FrozenChunk target) {
+            this.chunkKey = chunkKey;
+            this.target = target;
+        }
+
+        @Override
+        public boolean apply(long deadline) {
+            Chunk chunk = loadedChunk(chunkKey);
+            if (chunk == null) return true;
+            // restore from the end so the remaining entries are always a valid prefix if the chunk unloads midway
+            while (target.size > 0) {
+                int entry = target.entries[--target.size];
+                int local = entry & LOCAL_MASK;
+                BlockData data = target.palette.get(entry >>> LOCAL_BITS);
+                Block block = chunk.getBlock(local & 15, (local >>> 8) + target.minY, (local >>> 4) & 15);
+                if (data != null && block.getType() == target.placeholder) {
+                    block.setBlockData(data, false);
+                    restored++;
+                } else {
+                    skip(block, data);
+                }
+                if ((target.size & 15) == 0 && System.nanoTime() >= deadline) {
+                    if (target.size > 0) return false;
+                }
+            }
+            write(chunk, target);
+            if (frozen.get(chunkKey) == target) frozen.remove(chunkKey);
+            thawed.put(chunkKey, new Thawed(tickMonitor.getCurrentTick(), target.refreezes));
+            plugin.getLogger().info("Restored " + restored + " redstone blocks in chunk " + ChunkKeys.describe(chunkKey));
+            if (skipped > 0) {
+                plugin.getLogger().warning("Could not restore " + skipped + " redstone blocks in chunk " + ChunkKeys.describe(chunkKey)
+                        + " (changed since the freeze or unknown block data): " + skippedDetail
+                        + (skipped > MAX_LOGGED_SKIPS ? "; ..." : ""));
+            }
+            return true;
+        }
+
+        /**
+         * Remember an entry that is not restored, so the lost block is at least on record.
+         */
+        private void skip(Block block, BlockData data) {
+            if (++skipped > MAX_LOGGED_SKIPS) return;
+            if (skippedDetail.length() > 0) skippedDetail.append("; ");
+            skippedDetail.append(block.getX()).append(',').append(block.getY()).append(',').append(block.getZ())
+                    .append(' ').append(data == null ? "unknown" : data.getAsString())
+                    .append(" (found ").append(block.getType()).append(')');
+        }
+    }
+
+    private static final class Thawed {
+        private final long at;
+        private final int refreezes;
+
+        private Thawed(long at, int refreezes) {
+            this.at = at;
+            this.refreezes = refreezes;
+        }
+    }
+
+    private static final class FrozenChunk {
+        private final int minY;
+        private final Material placeholder;
+        private final List<BlockData> palette = new ArrayList<>();
+        private int[] entries;
+        private int size;
+        private State state;
+        private long frozenAt;
+        // how many times in a row this chunk was frozen again soon after being restored
+        private int refreezes;
+
+        private FrozenChunk(int minY, int capacity, Material placeholder) {
+            this.minY = minY;
+            this.placeholder = placeholder;
+            this.entries = new int[Math.max(4, capacity)];
+        }
+
+        private void append(int entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size << 1);
+            entries[size++] = entry;
+        }
+
+        /**
+         * Palette slot for the data, adding it if new. Returns -1 when the palette is full.
+         */
+        private int paletteIndex(BlockData data) {
+            // a machine has few distinct states, so a linear scan beats hashing BlockData
+            for (int i = 0; i < palette.size(); i++) {
+                if (data.equals(palette.get(i))) return i;
+            }
+            if (palette.size() >= MAX_PALETTE) return -1;
+            palette.add(data);
+            return palette.size() - 1;
+        }
+    }
+}
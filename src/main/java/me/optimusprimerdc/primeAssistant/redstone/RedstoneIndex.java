@@ -0,0 +1,456 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import me.optimusprimerdc.primeAssistant.util.LongObjectMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Incrementally maintained index of redstone component positions per chunk.
+ *
+ * Entries are kept up to date from place/break/piston/explosion/fluid events and persisted in the
+ * chunk's PersistentDataContainer. A chunk without stored data is indexed lazily, the first time
+ * something asks for it, by scanning a ChunkSnapshot off-thread. Changes reported while that scan
+ * runs are queued and replayed onto its result. Changes made without an event (plugins, commands)
+ * are not seen, so callers must re-check the block before acting on an entry.
+ *
+ * Positions are packed as (y - minY) << 8 | z << 4 | x; the component kind sits in the top byte.
+ */
+public class RedstoneIndex implements Listener {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int LOCAL_MASK = 0xFFFFFF;
+    // kind recorded for a queued removal; real kinds are indices into the component set
+    private static final int REMOVED = 0xFF;
+
+    private final Plugin plugin;
+    private final Material[] kinds;
+    private final int[] kindByOrdinal;
+    private final NamespacedKey entriesKey;
+    private final NamespacedKey paletteKey;
+    private final LongObjectMap<ChunkComponents> chunks = new LongObjectMap<>(256);
+    private final LongObjectMap<Build> building = new LongObjectMap<>();
+
+    public RedstoneIndex(Plugin plugin, Set<Material> components) {
+        this.plugin = plugin;
+        this.kinds = components.toArray(new Material[0]);
+        this.kindByOrdinal = new int[Material.values().length];
+        Arrays.fill(kindByOrdinal, -1);
+        for (int i = 0; i < kinds.length; i++) {
+            kindByOrdinal[kinds[i].ordinal()] = i;
+        }
+        this.entriesKey = new NamespacedKey(plugin, "redstone_index");
+        this.paletteKey = new NamespacedKey(plugin, "redstone_palette");
+    }
+
+    public void register() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public boolean isComponent(Material type) {
+        return kindByOrdinal[type.ordinal()] >= 0;
+    }
+
+    public boolean isIndexed(long chunkKey) {
+        return chunks.containsKey(chunkKey);
+    }
+
+    /**
+     * Number of indexed components in the chunk, or -1 if the chunk has not been indexed yet.
+     */
+    public int count(long chunkKey) {
+        ChunkComponents c = chunks.get(chunkKey);
+        return c == null ? -1 : c.size;
+    }
+
+    public int count(long chunkKey, Material type) {
+        ChunkComponents c = chunks.get(chunkKey);
+        int kind = kindByOrdinal[type.ordinal()];
+        if (c == null || kind < 0) return c == null ? -1 : 0;
+        int n = 0;
+        for (int i = 0; i < c.size; i++) {
+            if (c.entries[i] >>> 24 == kind) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Copy of the chunk's component positions in packed local form, or null if not indexed.
+     */
+    public int[] positions(long chunkKey) {
+        ChunkComponents c = chunks.get(chunkKey);
+        if (c == null) return null;
+        int[] out = new int[c.size];
+        for (int i = 0; i < c.size; i++) {
+            out[i] = c.entries[i] & LOCAL_MASK;
+        }
+        return out;
+    }
+
+    /**
+     * Visit every indexed component of the chunk with world block coordinates.
+     */
+    public void forEach(long chunkKey, ComponentVisitor visitor) {
+        ChunkComponents c = chunks.get(chunkKey);
+        if (c == null) return;
+        int baseX = ChunkKeys.chunkX(chunkKey) << 4;
+        int baseZ = ChunkKeys.chunkZ(chunkKey) << 4;
+        for (int i = 0; i < c.size; i++) {
+            int e = c.entries[i];
+            visitor.accept(baseX + (e & 15), ((e & LOCAL_MASK) >>> 8) + c.minY, baseZ + ((e >>> 4) & 15), kinds[e >>> 24]);
+        }
+    }
+
+    /**
+     * Make sure the chunk is indexed, then run the callback on the main thread. The callback also runs
+     * when the chunk could not be indexed (e.g. it unloaded), so callers should check isIndexed.
+     */
+    public void whenIndexed(long chunkKey, Runnable callback) {
+        if (chunks.containsKey(chunkKey)) {
+            if (callback != null) callback.run();
+            return;
+        }
+        Build pending = building.get(chunkKey);
+        if (pending != null) {
+            if (callback != null) pending.waiting.add(callback);
+            return;
+        }
+
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        if (world == null || !world.isChunkLoaded(cx, cz)) {
+            if (callback != null) callback.run();
+            return;
+        }
+
+        Chunk chunk = world.getChunkAt(cx, cz);
+        ChunkComponents stored = read(chunk);
+        if (stored != null) {
+            chunks.put(chunkKey, stored);
+            if (callback != null) callback.run();
+            return;
+        }
+
+        int minY = world.getMinHeight();
+        pending = new Build(minY);
+        if (callback != null) pending.waiting.add(callback);
+        building.put(chunkKey, pending);
+
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        int maxY = world.getMaxHeight();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ChunkComponents scanned = scan(snapshot, minY, maxY);
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> finishBuild(chunkKey, scanned));
+        });
+    }
+
+    public void request(long chunkKey) {
+        whenIndexed(chunkKey, null);
+    }
+
+    public void add(Block block) {
+        int kind = kindByOrdinal[block.getType().ordinal()];
+        if (kind >= 0) record(block, kind);
+    }
+
+    public void remove(Block block) {
+        record(block, REMOVED);
+    }
+
+    private void record(Block block, int kind) {
+        long chunkKey = ChunkKeys.of(block);
+        ChunkComponents c = chunks.get(chunkKey);
+        if (c != null) {
+            c.apply(local(block, c.minY), kind);
+            return;
+        }
+        // the snapshot being scanned predates this change, so keep it for the result
+        Build pending = building.get(chunkKey);
+        if (pending != null) pending.changes.append(local(block, pending.changes.minY), kind);
+    }
+
+    /**
+     * Write every dirty chunk back to its PersistentDataContainer (used on disable).
+     */
+    public void saveAll() {
+        chunks.forEach((key, c) -> {
+            if (c.dirty) writeIfLoaded(key, c);
+        });
+    }
+
+    private void finishBuild(long chunkKey, ChunkComponents scanned) {
+        Build pending = building.remove(chunkKey);
+        if (pending == null) return;
+        World world = ChunkKeys.world(chunkKey);
+        if (world != null && world.isChunkLoaded(ChunkKeys.chunkX(chunkKey), ChunkKeys.chunkZ(chunkKey))) {
+            // replay in event order; add and remove are idempotent, so overlap with the snapshot is harmless
+            ChunkComponents changes = pending.changes;
+            for (int i = 0; i < changes.size; i++) {
+                scanned.apply(changes.entries[i] & LOCAL_MASK, changes.entries[i] >>> 24);
+            }
+            scanned.dirty = true;
+            chunks.put(chunkKey, scanned);
+        }
+        for (Runnable r : pending.waiting) {
+            r.run();
+        }
+    }
+
+    private ChunkComponents scan(ChunkSnapshot snapshot, int minY, int maxY) {
+        ChunkComponents c = new ChunkComponents(minY, 16);
+        for (int sectionY = minY; sectionY < maxY; sectionY += 16) {
+            if (snapshot.isSectionEmpty((sectionY - minY) >> 4)) continue;
+            int top = Math.min(maxY, sectionY + 16);
+            for (int y = sectionY; y < top; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        int kind = kindByOrdinal[snapshot.getBlockType(x, y, z).ordinal()];
+                        if (kind >= 0) c.append(((y - minY) << 8) | (z << 4) | x, kind);
+                    }
+                }
+            }
+        }
+        return c;
+    }
+
+    private ChunkComponents read(Chunk chunk) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        int[] stored = pdc.get(entriesKey, PersistentDataType.INTEGER_ARRAY);
+        String palette = pdc.get(paletteKey, PersistentDataType.STRING);
+        int minY = chunk.getWorld().getMinHeight();
+        if (stored == null || palette == null || stored.length < 2 || stored[0] != FORMAT_VERSION || stored[1] != minY) {
+            return null;
+        }
+
+        // map the stored palette onto the current component set; dropped materials drop their entries
+        String[] names = palette.isEmpty() ? new String[0] : palette.split(",");
+        int[] remap = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Material m = Material.getMaterial(names[i]);
+            remap[i] = m == null ? -1 : kindByOrdinal[m.ordinal()];
+        }
+
+        ChunkComponents c = new ChunkComponents(minY, stored.length - 2);
+        for (int i = 2; i < stored.length; i++) {
+            int storedKind = stored[i] >>> 24;
+            int kind = storedKind < remap.length ? remap[storedKind] : -1;
+            if (kind >= 0) c.append(stored[i] & LOCAL_MASK, kind);
+        }
+        return c;
+    }
+
+    private void write(Chunk chunk, ChunkComponents c) {
+        int[] out = new int[c.size + 2];
+        out[0] = FORMAT_VERSION;
+        out[1] = c.minY;
+        System.arraycopy(c.entries, 0, out, 2, c.size);
+        StringBuilder palette = new StringBuilder();
+        for (int i = 0; i < kinds.length; i++) {
+            if (i > 0) palette.append(',');
+            palette.append(kinds[i].name());
+        }
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        pdc.set(entriesKey, PersistentDataType.INTEGER_ARRAY, out);
+        pdc.set(paletteKey, PersistentDataType.STRING, palette.toString());
+        c.dirty = false;
+    }
+
+    private void writeIfLoaded(long chunkKey, ChunkComponents c) {
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        if (world != null && world.isChunkLoaded(cx, cz)) {
+            write(world.getChunkAt(cx, cz), c);
+        }
+    }
+
+    private static int local(Block block, int minY) {
+        return ((block.getY() - minY) << 8) | ((block.getZ() & 15) << 4) | (block.getX() & 15);
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (event.isNewChunk()) return;
+        long key = ChunkKeys.of(event.getChunk());
+        if (chunks.containsKey(key)) return;
+        ChunkComponents stored = read(event.getChunk());
+        if (stored != null) chunks.put(key, stored);
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        ChunkComponents c = chunks.remove(ChunkKeys.of(event.getChunk()));
+        if (c != null && c.dirty) write(event.getChunk(), c);
+    }
+
+    @EventHandler
+    public void onWorldSave(WorldSaveEvent event) {
+        int world = ChunkKeys.worldIndex(event.getWorld());
+        chunks.forEach((key, c) -> {
+            if (c.dirty && ChunkKeys.worldIndex(key) == world) writeIfLoaded(key, c);
+        });
+    }
+
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        int world = ChunkKeys.worldIndex(event.getWorld());
+        chunks.removeIf((key, c) -> ChunkKeys.worldIndex(key) == world);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent event) {
+        add(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        remove(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlow(BlockFromToEvent event) {
+        // water/lava washing away wire, torches and repeaters
+        remove(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            remove(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            remove(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        moved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        moved(event.getBlocks(), event.getDirection());
+    }
+
+    /**
+     * Re-key components a piston is about to move; two passes so moved blocks never clobber each other.
+     */
+    private void moved(List<Block> blocks, BlockFace direction) {
+        if (blocks.isEmpty()) return;
+        int n = 0;
+        Block[] targets = new Block[blocks.size()];
+        int[] movedKinds = new int[blocks.size()];
+        for (Block block : blocks) {
+            int kind = kindByOrdinal[block.getType().ordinal()];
+            if (kind < 0) continue;
+            remove(block);
+            targets[n] = block.getRelative(direction);
+            movedKinds[n++] = kind;
+        }
+        for (int i = 0; i < n; i++) {
+            record(targets[i], movedKinds[i]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ComponentVisitor {
+        void accept(int x, int y, int z, Material type);
+    }
+
+    /**
+     * A snapshot scan in flight: who is waiting for it and the changes reported since the snapshot.
+     */
+    private static final class Build {
+        private final List<Runnable> waiting = new ArrayList<>(1);
+        private final ChunkComponents changes;
+
+        private Build(int minY) {
+            this.changes = new ChunkComponents(minY, 4);
+        }
+    }
+
+    private static final class ChunkComponents {
+        private final int minY;
+        private int[] entries;
+        private int size;
+        private boolean dirty;
+
+        private ChunkComponents(int minY, int capacity) {
+            this.minY = minY;
+            this.entries = new int[Math.max(4, capacity)];
+        }
+
+        private void append(int local, int kind) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size << 1);
+            entries[size++] = (kind << 24) | local;
+        }
+
+        private void add(int local, int kind) {
+            int i = indexOf(local);
+            if (i >= 0) {
+                if (entries[i] >>> 24 == kind) return;
+                entries[i] = (kind << 24) | local;
+            } else {
+                append(local, kind);
+            }
+            dirty = true;
+        }
+
+        private void apply(int local, int kind) {
+            if (kind == REMOVED) {
+                remove(local);
+            } else {
+                add(local, kind);
+            }
+        }
+
+        private void remove(int local) {
+            int i = indexOf(local);
+            if (i < 0) return;
+            entries[i] = entries[--size];
+            dirty = true;
+        }
+
+        private int indexOf(int local) {
+            for (int i = 0; i < size; i++) {
+                if ((entries[i] & LOCAL_MASK) == local) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import com.google.gson.JsonObject;
+import me.optimusprimerdc.primeAssistant.monitor.TickMonitor;
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records a per-second time series of the busiest chunks (one column per activity table) for a fixed
+ * window, then writes it as CSV or NDJSON into the plugin data folder off-thread.
+ */
+public class RedstoneProfiler {
+
+    public static final int MAX_SECONDS = 600;
+
+    private static final DateTimeFormatter FILE_TS = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final Plugin plugin;
+    private final TickMonitor tickMonitor;
+    private final ActivityScores ranking;
+    private final String[] columnNames;
+    private final ActivityScores[] columns;
+
+    private BukkitTask task;
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * @param ranking table whose top-K picks the chunks sampled each second
+     * @param columns tables reported per chunk, in column order
+     */
+    public RedstoneProfiler(Plugin plugin, TickMonitor tickMonitor, ActivityScores ranking, Map<String, ActivityScores> columns) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        this.ranking = ranking;
+        this.columnNames = columns.keySet().toArray(new String[0]);
+        this.columns = columns.values().toArray(new ActivityScores[0]);
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Start recording for the given number of seconds. Returns false if a profile is already running.
+     */
+    public boolean start(int seconds, boolean ndjson, CommandSender requester) {
+        if (task != null) return false;
+        rows.clear();
+        int samples = Math.max(1, Math.min(MAX_SECONDS, seconds));
+        Instant started = Instant.now();
+
+        task = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+            int taken = 0;
+
+            @Override
+            public void run() {
+                sample();
+                if (++taken >= samples) {
+                    task.cancel();
+                    task = null;
+                    List<Row> recorded = new ArrayList<>(rows);
+                    rows.clear();
+                    write(recorded, started, ndjson, requester);
+                }
+            }
+        }, 20L, 20L);
+        return true;
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        rows.clear();
+    }
+
+    private void sample() {
+        long tick = tickMonitor.getCurrentTick();
+        long now = System.currentTimeMillis();
+        double tps = tickMonitor.getTps1s();
+        double tickMillis = tickMonitor.getTickInterval5s();
+
+        long[] keys = new long[ranking.capacity()];
+        int n = ranking.top(keys.length, tick, keys, new double[keys.length]);
+        for (int i = 0; i < n; i++) {
+            long key = keys[i];
+            double[] values = new double[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                values[c] = columns[c].rate(key, tick);
+            }
+            rows.add(new Row(now, tick, ChunkKeys.worldName(key), ChunkKeys.chunkX(key), ChunkKeys.chunkZ(key), values, tps, tickMillis));
+        }
+    }
+
+    private void write(List<Row> recorded, Instant started, boolean ndjson, CommandSender requester) {
+        Path dir = plugin.getDataFolder().toPath().resolve("profiles");
+        Path file = dir.resolve("redstone-" + FILE_TS.format(started) + (ndjson ? ".ndjson" : ".csv"));
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            StringBuilder out = new StringBuilder(recorded.size() * 96);
+            if (!ndjson) {
+                out.append("timestamp,tick,world,chunk_x,chunk_z,");
+                for (String name : columnNames) out.append(name).append(',');
+                out.append("tps,tick_ms\n");
+            }
+            for (Row row : recorded) {
+                out.append(ndjson ? row.toJson(columnNames) : row.toCsv()).append('\n');
+            }
+
+            String result;
+            try {
+                Files.createDirectories(dir);
+                Files.writeString(file, out.toString(), StandardCharsets.UTF_8);
+                result = ChatColor.GREEN + "Redstone profile written to " + file.getFileName() + " (" + recorded.size() + " rows).";
+                plugin.getLogger().info("Redstone profile written to " + file);
+            } catch (IOException e) {
+                result = ChatColor.RED + "Failed to write redstone profile: " + e.getMessage();
+                plugin.getLogger().warning("Redstone profile write failed: " + e.getMessage());
+            }
+
+            String message = result;
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> requester.sendMessage(message));
+            }
+        });
+    }
+
+    private static final class Row {
+        private final long timestamp;
+        private final long tick;
+        private final String world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final double[] values;
+        private final double tps;
+        private final double tickMillis;
+
+        private Row(long timestamp, long tick, String world, int chunkX, int chunkZ, double[] values, double tps, double tickMillis) {
+            this.timestamp = timestamp;
+            this.tick = tick;
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.values = values;
+            this.tps = tps;
+            this.tickMillis = tickMillis;
+        }
+
+        private String toCsv() {
+            StringBuilder line = new StringBuilder(96);
+            line.append(timestamp).append(',').append(tick).append(',').append(world).append(',')
+                    .append(chunkX).append(',').append(chunkZ).append(',');
+            for (double v : values) {
+                line.append(String.format(Locale.ROOT, "%.2f", v)).append(',');
+            }
+            return line.append(String.format(Locale.ROOT, "%.2f,%.2f", tps, tickMillis)).toString();
+        }
+
+        private String toJson(String[] names) {
+            JsonObject o = new JsonObject();
+            o.addProperty("timestamp", timestamp);
+            o.addProperty("tick", tick);
+            o.addProperty("world", world);
+            o.addProperty("chunk_x", chunkX);
+            o.addProperty("chunk_z", chunkZ);
+            for (int i = 0; i < values.length; i++) {
+                o.addProperty(names[i], round(values[i]));
+            }
+            o.addProperty("tps", round(tps));
+            o.addProperty("tick_ms", round(tickMillis));
+            return o.toString();
+        }
+
+        private static double round(double v) {
+            return Math.round(v * 100.0) / 100.0;
+        }
+    }
+}
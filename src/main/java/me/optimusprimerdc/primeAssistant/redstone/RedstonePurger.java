@@ -0,0 +1,150 @@
+package me.optimusprimerdc.primeAssistant.redstone;
+
+import me.optimusprimerdc.primeAssistant.util.ChunkKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Removes redstone components from lagging chunks without stalling the tick.
+ *
+ * Component positions come from the RedstoneIndex (which scans a ChunkSnapshot off-thread the first
+ * time a chunk is needed), and a single applier task removes them in batches bounded by a per-tick
+ * time budget. Each position is re-checked on the main thread before it is changed.
+ */
+public class RedstonePurger {
+
+    private final Plugin plugin;
+    private final Set<Material> components;
+    private final RedstoneIndex index;
+    private final ArrayDeque<PurgeJob> ready = new ArrayDeque<>();
+    private final Set<Long> pending = new HashSet<>();
+    private long tickBudgetNanos;
+    private BukkitTask applyTask;
+
+    public RedstonePurger(Plugin plugin, Set<Material> components, RedstoneIndex index, double tickBudgetMillis) {
+        this.plugin = plugin;
+        this.components = components;
+        this.index = index;
+        setTickBudgetMillis(tickBudgetMillis);
+    }
+
+    public void setTickBudgetMillis(double millis) {
+        this.tickBudgetNanos = (long) (Math.max(0.1, millis) * 1_000_000L);
+    }
+
+    public boolean isPending(long chunkKey) {
+        return pending.contains(chunkKey);
+    }
+
+    /**
+     * Schedule a purge of the chunk. Must be called on the main thread; no-op if one is already pending.
+     */
+    public void purge(long chunkKey) {
+        World world = ChunkKeys.world(chunkKey);
+        int cx = ChunkKeys.chunkX(chunkKey);
+        int cz = ChunkKeys.chunkZ(chunkKey);
+        if (world == null || !world.isChunkLoaded(cx, cz)) return;
+        if (!pending.add(chunkKey)) return;
+
+        int minY = world.getMinHeight();
+        index.whenIndexed(chunkKey, () -> {
+            int[] positions = index.positions(chunkKey);
+            if (positions == null) {
+                pending.remove(chunkKey);
+                return;
+            }
+            enqueue(new PurgeJob(chunkKey, minY, positions));
+        });
+    }
+
+    private void enqueue(PurgeJob job) {
+        if (job.positions.length == 0) {
+            pending.remove(job.chunkKey);
+            return;
+        }
+        ready.add(job);
+        if (applyTask == null) {
+            applyTask = Bukkit.getScheduler().runTaskTimer(plugin, this::applyBatch, 1L, 1L);
+        }
+    }
+
+    private void applyBatch() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        while (!ready.isEmpty()) {
+            PurgeJob job = ready.peek();
+            if (!job.apply(deadline)) return;
+            ready.poll();
+            pending.remove(job.chunkKey);
+            job.report();
+        }
+        applyTask.cancel();
+        applyTask = null;
+    }
+
+    public void stop() {
+        if (applyTask != null) {
+            applyTask.cancel();
+            applyTask = null;
+        }
+        ready.clear();
+        pending.clear();
+    }
+
+    private final class PurgeJob {
+        private final long chunkKey;
+        private final int minY;
+        private final int[] positions;
+        private int cursor = 0;
+        private int removed = 0;
+
+        private PurgeJob(long chunkKey, int minY, int[] positions) {
+            this.chunkKey = chunkKey;
+            this.minY = minY;
+            this.positions = positions;
+        }
+
+        /**
+         * Remove components until done or the deadline passes. Returns true once the job is finished.
+         */
+        private boolean apply(long deadline) {
+            World world = ChunkKeys.world(chunkKey);
+            int cx = ChunkKeys.chunkX(chunkKey);
+            int cz = ChunkKeys.chunkZ(chunkKey);
+            if (world == null || !world.isChunkLoaded(cx, cz)) {
+                // chunk went away; whatever is left is no longer ticking
+                return true;
+            }
+            Chunk chunk = world.getChunkAt(cx, cz);
+            while (cursor < positions.length) {
+                int packed = positions[cursor++];
+                Block block = chunk.getBlock(packed & 15, (packed >>> 8) + minY, (packed >>> 4) & 15);
+                if (components.contains(block.getType())) {
+                    block.setType(Material.AIR);
+                    index.remove(block);
+                    removed++;
+                }
+                if ((cursor & 15) == 0 && System.nanoTime() >= deadline) {
+                    return cursor >= positions.length;
+                }
+            }
+            return true;
+        }
+
+        private void report() {
+            if (removed <= 0) return;
+            plugin.getLogger().warning("Purged " + removed + " redstone blocks from chunk " + ChunkKeys.describe(chunkKey));
+            Bukkit.broadcast(ChatColor.GOLD + "Removed " + removed + " redstone blocks from a lagging chunk at " +
+                    (ChunkKeys.chunkX(chunkKey) * 16) + ", " + (ChunkKeys.chunkZ(chunkKey) * 16), "primeassistant.notify");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+/**
+ * Packs block coordinates into a long using the vanilla BlockPos layout:
+ * 26 bits X | 26 bits Z | 12 bits Y, all sign-extended on decode. The world is not part of the key.
+ */
+public final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int y(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int z(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    public static long offset(long key, int dx, int dy, int dz) {
+        return pack(x(key) + dx, y(key) + dy, z(key) + dz);
+    }
+}
@@ -0,0 +1,104 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Packs a (world, chunkX, chunkZ) triple into a single long so hot paths can key
+ * primitive maps without building Strings.
+ *
+ * Layout: 15 bits world index | 24 bits chunk X | 24 bits chunk Z (X/Z are sign-extended on decode).
+ * The top bit is always clear, so {@link Long#MIN_VALUE} never collides with a real key.
+ */
+public final class ChunkKeys {
+
+    private static final long COORD_MASK = 0xFFFFFFL;
+    private static final int MAX_WORLDS = 0x7FFF;
+
+    // world UUIDs indexed by their slot; append-only so packed keys stay valid for the plugin lifetime
+    private static volatile UUID[] worlds = new UUID[0];
+
+    private ChunkKeys() {
+    }
+
+    public static long pack(int worldIndex, int chunkX, int chunkZ) {
+        return ((long) worldIndex << 48) | ((chunkX & COORD_MASK) << 24) | (chunkZ & COORD_MASK);
+    }
+
+    public static long of(Chunk chunk) {
+        return pack(worldIndex(chunk.getWorld()), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Key of the chunk containing the block, without loading the Chunk object.
+     */
+    public static long of(Block block) {
+        return pack(worldIndex(block.getWorld()), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    public static long of(Location location) {
+        return pack(worldIndex(location.getWorld()), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    public static int worldIndex(long key) {
+        return (int) (key >>> 48);
+    }
+
+    public static int chunkX(long key) {
+        return ((int) (key >>> 24) << 8) >> 8;
+    }
+
+    public static int chunkZ(long key) {
+        return ((int) key << 8) >> 8;
+    }
+
+    /**
+     * Resolve the world of a packed key, or null if it has been unloaded.
+     */
+    public static World world(long key) {
+        UUID[] known = worlds;
+        int idx = worldIndex(key);
+        return idx < known.length ? Bukkit.getWorld(known[idx]) : null;
+    }
+
+    /**
+     * Human readable "world:x:z" form, matching the old String keys in log output.
+     */
+    public static String describe(long key) {
+        return worldName(key) + ":" + chunkX(key) + ":" + chunkZ(key);
+    }
+
+    public static String worldName(long key) {
+        World world = world(key);
+        return world != null ? world.getName() : "world#" + worldIndex(key);
+    }
+
+    public static int worldIndex(World world) {
+        UUID id = world.getUID();
+        UUID[] known = worlds;
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].equals(id)) return i;
+        }
+        return register(id);
+    }
+
+    private static synchronized int register(UUID id) {
+        UUID[] known = worlds;
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].equals(id)) return i;
+        }
+        if (known.length >= MAX_WORLDS) {
+            throw new IllegalStateException("Too many worlds registered for chunk keys: " + known.length);
+        }
+        UUID[] grown = Arrays.copyOf(known, known.length + 1);
+        grown[known.length] = id;
+        worlds = grown;
+        return known.length;
+    }
+}
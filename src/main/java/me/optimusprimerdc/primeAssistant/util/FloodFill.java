@@ -0,0 +1,178 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+import java.util.Arrays;
+
+/**
+ * Reusable breadth-first flood fill over packed block positions (see BlockKeys).
+ *
+ * The queue is a plain long array and the visited set an open-addressing table whose slots are
+ * stamped with a run generation, so starting a new run is O(1) instead of clearing the table. All
+ * arrays are kept between runs and only grow, so a warmed-up instance allocates nothing per fill.
+ *
+ * Positions accepted by the visitor are recorded in order and can be read back until the next run.
+ * Not thread-safe; use one instance per thread.
+ */
+public final class FloodFill {
+
+    /** The six face neighbours. */
+    public static final int[] FACES = {1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1, 0, 0, 0, 1, 0, 0, -1};
+    /** All 26 neighbours of the surrounding 3x3x3 cube. */
+    public static final int[] CUBE = cube();
+
+    private long[] queue = new long[256];
+    private int head;
+    private int tail;
+
+    private long[] visited = new long[1024];
+    private int[] stamps = new int[1024];
+    private int mask = 1023;
+    private int visitedCount;
+    private int generation = 0;
+
+    private long[] accepted = new long[256];
+    private int acceptedCount;
+    private boolean truncated;
+
+    /**
+     * Fill from the start position. The visitor decides for each reached position whether it belongs
+     * to the region; accepted positions are expanded through the given neighbour offsets (x, y, z
+     * triples). Stops once maxAccepted positions were accepted. Returns the accepted count.
+     */
+    public int run(int x, int y, int z, int[] offsets, int maxAccepted, Visitor visitor) {
+        begin();
+        long start = BlockKeys.pack(x, y, z);
+        markVisited(start);
+        enqueue(start);
+
+        while (head < tail) {
+            if (acceptedCount >= maxAccepted) {
+                truncated = true;
+                break;
+            }
+            long pos = queue[head++];
+            int px = BlockKeys.x(pos);
+            int py = BlockKeys.y(pos);
+            int pz = BlockKeys.z(pos);
+            if (!visitor.visit(px, py, pz)) continue;
+
+            accept(pos);
+            for (int i = 0; i < offsets.length; i += 3) {
+                long next = BlockKeys.pack(px + offsets[i], py + offsets[i + 1], pz + offsets[i + 2]);
+                if (markVisited(next)) enqueue(next);
+            }
+        }
+        return acceptedCount;
+    }
+
+    public int acceptedCount() {
+        return acceptedCount;
+    }
+
+    /**
+     * Packed position of the i-th accepted block, in visiting order.
+     */
+    public long accepted(int i) {
+        return accepted[i];
+    }
+
+    /**
+     * Copy of the accepted positions, for callers that keep them past the next run.
+     */
+    public long[] copyAccepted() {
+        return Arrays.copyOf(accepted, acceptedCount);
+    }
+
+    /**
+     * Number of distinct positions probed by the last run, accepted or not.
+     */
+    public int visitedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * True if the last run stopped at maxAccepted with positions still queued.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private void begin() {
+        head = 0;
+        tail = 0;
+        acceptedCount = 0;
+        visitedCount = 0;
+        truncated = false;
+        if (++generation == 0) {
+            // wrapped after 2^32 runs: old stamps could collide with the new generation
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    private void enqueue(long pos) {
+        if (tail == queue.length) queue = Arrays.copyOf(queue, tail << 1);
+        queue[tail++] = pos;
+    }
+
+    private void accept(long pos) {
+        if (acceptedCount == accepted.length) accepted = Arrays.copyOf(accepted, acceptedCount << 1);
+        accepted[acceptedCount++] = pos;
+    }
+
+    /**
+     * Add to the visited set. Returns false if the position was already visited in this run.
+     */
+    private boolean markVisited(long pos) {
+        int slot = LongHash.mix(pos) & mask;
+        while (stamps[slot] == generation) {
+            if (visited[slot] == pos) return false;
+            slot = (slot + 1) & mask;
+        }
+        visited[slot] = pos;
+        stamps[slot] = generation;
+        if (++visitedCount > (mask + 1) >> 1) grow();
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = visited;
+        int[] oldStamps = stamps;
+        int capacity = oldKeys.length << 1;
+        visited = new long[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] != generation) continue;
+            int slot = LongHash.mix(oldKeys[i]) & mask;
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            visited[slot] = oldKeys[i];
+            stamps[slot] = generation;
+        }
+    }
+
+    private static int[] cube() {
+        int[] offsets = new int[26 * 3];
+        int i = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (dx == 0 && dy == 0 && dz == 0) continue;
+                    offsets[i++] = dx;
+                    offsets[i++] = dy;
+                    offsets[i++] = dz;
+                }
+            }
+        }
+        return offsets;
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Return true if the position belongs to the region and should be expanded.
+         */
+        boolean visit(int x, int y, int z);
+    }
+}
@@ -0,0 +1,219 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends lines to a log file from a background thread.
+ *
+ * Callers only enqueue: the queue is a lock-free linked queue with an atomic size bound, and lines
+ * offered while it is full are counted and dropped rather than blocking the caller. The writer thread
+ * keeps one channel open, writes whatever has queued up in a single batch, fsyncs at most once per
+ * interval, and rotates the file once it passes the size limit, gzipping the rotated copy if asked.
+ * A rotated copy of name.ext is renamed to name-timestamp.ext. An optional header line is written at
+ * the top of every new file, including the one started after a rotation.
+ */
+public class LogAppender {
+
+    private static final int BATCH_CHARS = 64 * 1024;
+
+    private final Path file;
+    private final String baseName;
+    private final String extension;
+    private final String header;
+    private final Logger logger;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile long maxBytes;
+    private volatile boolean compressRotated;
+    private volatile long fsyncIntervalNanos;
+
+    private FileChannel channel;
+    private long size;
+    private boolean unsynced;
+    private long lastSync;
+
+    /**
+     * @param header line written at the top of each new file (including its line separator), or null
+     */
+    public LogAppender(Path file, String header, Logger logger, int capacity) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.file = file;
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        this.header = header;
+        this.logger = logger;
+        this.capacity = Math.max(16, capacity);
+        this.writer = new Thread(this::run, "PrimeAssistant-" + baseName + "-log");
+        this.writer.setDaemon(true);
+        configure(5 * 1024 * 1024L, false, 1000L);
+    }
+
+    public void configure(long maxBytes, boolean compressRotated, long fsyncIntervalMillis) {
+        this.maxBytes = Math.max(1024L, maxBytes);
+        this.compressRotated = compressRotated;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, fsyncIntervalMillis));
+    }
+
+    /**
+     * Start the writer thread. Does nothing if it is already running or the appender was closed.
+     */
+    public void start() {
+        if (!running || writer.isAlive()) return;
+        writer.start();
+    }
+
+    /**
+     * Queue a complete line (including its line separator). Never blocks.
+     */
+    public void append(String line) {
+        if (!running) return;
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(line);
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Write out what is queued, sync and close. Waits up to the given time for the writer.
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(Math.max(1L, timeoutMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            boolean stopping = !running;
+            drain(batch);
+            if (batch.length() > 0) {
+                write(batch);
+                batch.setLength(0);
+            }
+            int lost = dropped.getAndSet(0);
+            if (lost > 0) logger.warning(file.getFileName() + ": log queue full, dropped " + lost + " lines.");
+            if (unsynced && (stopping || System.nanoTime() - lastSync >= fsyncIntervalNanos)) sync();
+            if (stopping && queue.isEmpty()) break;
+            LockSupport.parkNanos(this, unsynced ? Math.max(1_000_000L, fsyncIntervalNanos) : TimeUnit.SECONDS.toNanos(1));
+        }
+        closeChannel();
+    }
+
+    private void drain(StringBuilder batch) {
+        String line;
+        while (batch.length() < BATCH_CHARS && (line = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.append(line);
+        }
+    }
+
+    private void write(CharSequence text) {
+        try {
+            if (channel == null) open();
+            ByteBuffer out = StandardCharsets.UTF_8.encode(text.toString());
+            size += out.remaining();
+            while (out.hasRemaining()) channel.write(out);
+            unsynced = true;
+            if (size > maxBytes) rotate();
+        } catch (IOException e) {
+            logger.warning(file.getFileName() + ": log write failed: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = channel.size();
+        if (size == 0 && header != null) {
+            ByteBuffer out = StandardCharsets.UTF_8.encode(header);
+            size += out.remaining();
+            while (out.hasRemaining()) channel.write(out);
+        }
+    }
+
+    private void sync() {
+        if (channel == null) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            logger.warning(file.getFileName() + ": log sync failed: " + e.getMessage());
+        }
+        unsynced = false;
+        lastSync = System.nanoTime();
+    }
+
+    private void rotate() {
+        sync();
+        closeChannel();
+        Path rotated = file.resolveSibling(baseName + "-" + Instant.now().toString().replace(":", "-") + extension);
+        try {
+            try {
+                Files.move(file, rotated, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(file, rotated);
+            }
+        } catch (IOException e) {
+            logger.warning(file.getFileName() + ": rotate failed: " + e.getMessage());
+            return;
+        }
+        if (compressRotated) compress(rotated);
+    }
+
+    private void compress(Path rotated) {
+        Path gz = rotated.resolveSibling(rotated.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(rotated);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            logger.warning(file.getFileName() + ": compressing " + rotated.getFileName() + " failed: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.delete(rotated);
+        } catch (IOException e) {
+            logger.warning(file.getFileName() + ": could not remove " + rotated.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to do with it
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,15 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+/**
+ * Hash mixing shared by the primitive long-keyed tables.
+ */
+public final class LongHash {
+
+    private LongHash() {
+    }
+
+    public static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
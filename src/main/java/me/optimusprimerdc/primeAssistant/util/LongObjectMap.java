@@ -0,0 +1,161 @@
+package me.optimusprimerdc.primeAssistant.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long -> V map with linear probing and backward-shift deletion.
+ * Lookups never box the key. Not thread-safe.
+ */
+public class LongObjectMap<V> {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expected) {
+        allocate(Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = indexOf(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return keys[indexOf(key)] == key;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int slot = indexOf(key);
+        if (keys[slot] == key) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) {
+            rehash((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = indexOf(key);
+        if (keys[slot] != key) return null;
+        V old = (V) values[slot];
+        deleteSlot(slot);
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<V> visitor) {
+        long[] k = keys;
+        Object[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != EMPTY) {
+                visitor.accept(k[i], (V) v[i]);
+            }
+        }
+    }
+
+    /**
+     * Remove every entry the filter accepts.
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(Filter<V> filter) {
+        int removed = 0;
+        int i = 0;
+        while (i < keys.length) {
+            // a backward shift can move an unvisited entry into slot i, so only advance when nothing moved in
+            if (keys[i] != EMPTY && filter.test(keys[i], (V) values[i])) {
+                deleteSlot(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = LongHash.mix(keys[next]) & mask;
+            // move the entry back if its ideal slot is not between the hole and its current position
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+    }
+
+    private int indexOf(long key) {
+        int slot = LongHash.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void accept(long key, V value);
+    }
+
+    @FunctionalInterface
+    public interface Filter<V> {
+        boolean test(long key, V value);
+    }
+}